@@ -0,0 +1,66 @@
+package mochachip.benchmarks;
+
+import mochachip.CPU;
+import mochachip.FrameBuffer;
+import mochachip.Input;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//Microbenchmarks for sprite drawing and clearing the screen
+//Display.clearScreen was replaced by FrameBuffer.clear when the framebuffer was packed into rows
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisplayBenchmark {
+    private static final int SPRITE_ADDRESS = 0x300;
+
+    @State(Scope.Thread)
+    public static class DrawState {
+        @Param({"1", "5", "8", "15"})
+        int height;
+
+        //0 is byte aligned, 60 wraps around the right edge
+        @Param({"0", "60"})
+        int x;
+
+        CPU cpu;
+
+        @Setup
+        public void setup() {
+            cpu = new CPU(new Input(), new FrameBuffer());
+            cpu.reset();
+            for (int row = 0; row < 15; row++) {
+                cpu.getMemory().write(SPRITE_ADDRESS + row, (byte) (0xA5 ^ row));
+            }
+            cpu.getRegisters().setIndexRegister(SPRITE_ADDRESS);
+            cpu.getRegisters().setVariableRegister(0, x);
+            cpu.getRegisters().setVariableRegister(1, 10);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ScreenState {
+        FrameBuffer frameBuffer;
+
+        @Setup
+        public void setup() {
+            frameBuffer = new FrameBuffer();
+            for (int y = 0; y < FrameBuffer.HEIGHT; y++) {
+                frameBuffer.drawSpriteRow(y, y, 0xFF);
+            }
+        }
+    }
+
+    @Benchmark
+    public void draw(DrawState state) {
+        state.cpu.draw(0, 1, state.height);
+    }
+
+    @Benchmark
+    public void clear(ScreenState state) {
+        state.frameBuffer.clear();
+    }
+}
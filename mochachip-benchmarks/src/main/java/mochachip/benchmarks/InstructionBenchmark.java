@@ -0,0 +1,71 @@
+package mochachip.benchmarks;
+
+import mochachip.CPU;
+import mochachip.FrameBuffer;
+import mochachip.Input;
+import mochachip.Instruction;
+import mochachip.Memory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//Microbenchmarks for the interpreter's fetch and decode paths
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstructionBenchmark {
+    @State(Scope.Thread)
+    public static class MachineState {
+        CPU cpu;
+
+        @Setup
+        public void setup() {
+            cpu = new CPU(new Input(), new FrameBuffer());
+            cpu.reset();
+            cpu.getMemory().loadRom(SyntheticRoms.get("mixed"));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DecodeState extends MachineState {
+        //One representative opcode per handler family, CALL and RET are measured as a pair in callReturn
+        @Param({"00E0", "1200", "3A00", "5010", "6A2F", "7A01", "8010", "8011", "8014", "8015", "8016", "801E",
+                "A300", "B200", "C0FF", "D015", "E09E", "F007", "F015", "F01E", "F029", "F033", "F555", "F565"})
+        String opcode;
+
+        Instruction instruction;
+
+        @Setup
+        public void decodeSetup() {
+            instruction = new Instruction(Memory.PROGRAM_START_ADDRESS, Integer.parseInt(opcode, 16));
+        }
+    }
+
+    @Benchmark
+    public Instruction fetchInstruction(MachineState state) {
+        state.cpu.getProgramCounter().jump(Memory.PROGRAM_START_ADDRESS);
+        return state.cpu.fetchInstruction();
+    }
+
+    @Benchmark
+    public int fetch(MachineState state) {
+        state.cpu.getProgramCounter().jump(Memory.PROGRAM_START_ADDRESS);
+        return state.cpu.fetch();
+    }
+
+    @Benchmark
+    public void decode(DecodeState state) {
+        //Reset the PC and I so skips, jumps and stores stay in the same place every call
+        state.cpu.getProgramCounter().jump(Memory.PROGRAM_START_ADDRESS);
+        state.cpu.getRegisters().setIndexRegister(0x300);
+        state.cpu.decode(state.instruction);
+    }
+
+    @Benchmark
+    public void callReturn(MachineState state) {
+        state.cpu.call(0x21A);
+        state.cpu.ret();
+    }
+}
@@ -0,0 +1,55 @@
+package mochachip.benchmarks;
+
+import mochachip.Memory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+//Microbenchmarks for single byte reads and writes, including the write barrier and dirty line tracking
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MemoryBenchmark {
+    private static final int PROGRAM_SPACE = Memory.MEMORY_SIZE - Memory.PROGRAM_START_ADDRESS;
+    Memory memory;
+    int address;
+    byte value;
+
+    @Setup
+    public void setup() {
+        memory = new Memory();
+    }
+
+    //Walk through program space so every call touches a different byte
+    private int nextAddress() {
+        address = (address + 1) % PROGRAM_SPACE;
+        return Memory.PROGRAM_START_ADDRESS + address;
+    }
+
+    @Benchmark
+    public byte read() {
+        return memory.read(nextAddress());
+    }
+
+    @Benchmark
+    public void write() {
+        memory.write(nextAddress(), value++);
+    }
+
+    //Fx55 style burst into one line, the usual case of a program storing its variables every frame
+    @Benchmark
+    public void writeSameLine() {
+        for (int i = 0; i < Memory.LINE_SIZE; i++) memory.write(0x300 + i, value++);
+    }
+
+    @Benchmark
+    public void readBlock(Blackhole blackhole) {
+        for (int i = Memory.PROGRAM_START_ADDRESS; i < Memory.MEMORY_SIZE; i++) {
+            blackhole.consume(memory.read(i));
+        }
+    }
+}
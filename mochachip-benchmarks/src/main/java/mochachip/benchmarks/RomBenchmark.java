@@ -0,0 +1,68 @@
+package mochachip.benchmarks;
+
+import com.sun.management.ThreadMXBean;
+import mochachip.CPU;
+import mochachip.ExecutionEngine;
+import mochachip.FrameBuffer;
+import mochachip.Input;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+//Macrobenchmarks that run whole programs headless, one emulated second per call
+//Alongside calls per second, JMH reports the instructions and allocatedBytes counters as rates,
+//which gives instructions per second and bytes allocated per second
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RomBenchmark {
+    static final int FRAMES = CPU.FRAME_RATE;
+    //Far above real hardware, so each frame holds enough work to measure the engine rather than the frame loop
+    static final int SPEED = 1_000_000;
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Param({"arithmetic", "sprites", "memory", "mixed"})
+    String rom;
+
+    @Param({"interpreter", "jit"})
+    String engine;
+
+    CPU cpu;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long instructions;
+        public long allocatedBytes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            instructions = 0;
+            allocatedBytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cpu = new CPU(new Input(), new FrameBuffer(), SPEED);
+        cpu.setExecutionEngine(ExecutionEngine.fromString(engine));
+        cpu.reset();
+        if (!cpu.getMemory().loadRom(SyntheticRoms.get(rom))) {
+            throw new IllegalStateException("Couldn't load synthetic ROM: " + rom);
+        }
+    }
+
+    @Benchmark
+    public long run(Counters counters) {
+        long startInstructions = cpu.getInstructionCount();
+        long startBytes = THREADS.getCurrentThreadAllocatedBytes();
+        long frames = cpu.runUnthrottled(FRAMES, c -> false);
+        counters.allocatedBytes += THREADS.getCurrentThreadAllocatedBytes() - startBytes;
+        counters.instructions += cpu.getInstructionCount() - startInstructions;
+        return frames;
+    }
+}
@@ -0,0 +1,93 @@
+package mochachip.benchmarks;
+
+import mochachip.Rom;
+
+//Small CHIP-8 programs bundled with the benchmarks so results don't depend on which ROMs are on the machine
+//Each one loops forever over a different part of the instruction set
+public final class SyntheticRoms {
+    //Register arithmetic and a compare-and-branch loop
+    static final int[] ARITHMETIC = {
+            0x6000, //200: LD V0, 0
+            0x6101, //202: LD V1, 1
+            0x8014, //204: ADD V0, V1
+            0x8105, //206: SUB V1, V0
+            0x8213, //208: XOR V2, V1
+            0x8326, //20A: SHR V3
+            0x7405, //20C: ADD V4, 5
+            0x3400, //20E: SE V4, 0
+            0x1204, //210: JP 204
+            0x1200  //212: JP 200
+    };
+
+    //Fills the screen with font sprites, row by row, then clears it and starts over
+    static final int[] SPRITES = {
+            0x00E0, //200: CLS
+            0x6000, //202: LD V0, 0
+            0x6100, //204: LD V1, 0
+            0xA050, //206: LD I, 050 (font digit 0)
+            0xD015, //208: DRW V0, V1, 5
+            0x7008, //20A: ADD V0, 8
+            0x3040, //20C: SE V0, 64
+            0x1208, //20E: JP 208
+            0x6000, //210: LD V0, 0
+            0x7106, //212: ADD V1, 6
+            0x3124, //214: SE V1, 36
+            0x1208, //216: JP 208
+            0x1200  //218: JP 200
+    };
+
+    //BCD conversion and register dumps and loads, the instructions that go through the memory write path
+    static final int[] MEMORY = {
+            0xA300, //200: LD I, 300
+            0x6A7B, //202: LD VA, 123
+            0xFA33, //204: LD B, VA
+            0xF265, //206: LD V2, [I]
+            0xF555, //208: LD [I], V5
+            0x7A01, //20A: ADD VA, 1
+            0x7B01, //20C: ADD VB, 1
+            0x3B00, //20E: SE VB, 0
+            0x1204, //210: JP 204
+            0x1200  //212: JP 200
+    };
+
+    //A rough game loop - random positions, drawing, a key check, timers and a subroutine call
+    static final int[] MIXED = {
+            0x00E0, //200: CLS
+            0x6505, //202: LD V5, 5
+            0xC03F, //204: RND V0, 3F
+            0xC11F, //206: RND V1, 1F
+            0xF229, //208: LD F, V2
+            0xD015, //20A: DRW V0, V1, 5
+            0xE59E, //20C: SKP V5
+            0x7201, //20E: ADD V2, 1
+            0xF315, //210: LD DT, V3
+            0xF307, //212: LD V3, DT
+            0x221A, //214: CALL 21A
+            0x1204, //216: JP 204
+            0x0000, //218: padding
+            0x8414, //21A: ADD V4, V1
+            0x00EE  //21C: RET
+    };
+
+    private SyntheticRoms() {
+    }
+
+    public static Rom get(String name) {
+        return switch (name) {
+            case "arithmetic" -> assemble(name, ARITHMETIC);
+            case "sprites" -> assemble(name, SPRITES);
+            case "memory" -> assemble(name, MEMORY);
+            case "mixed" -> assemble(name, MIXED);
+            default -> throw new IllegalArgumentException("Unknown synthetic ROM: " + name);
+        };
+    }
+
+    static Rom assemble(String name, int[] opcodes) {
+        byte[] data = new byte[opcodes.length * 2];
+        for (int i = 0; i < opcodes.length; i++) {
+            data[i * 2] = (byte) (opcodes[i] >> 8);
+            data[i * 2 + 1] = (byte) opcodes[i];
+        }
+        return new Rom(name, data);
+    }
+}
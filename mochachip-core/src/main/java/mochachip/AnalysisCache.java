@@ -0,0 +1,135 @@
+package mochachip;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+//On-disk cache of control flow analysis results, one small file per ROM named after its content hash
+//An entry holds the code bitmaps, the basic blocks with their successors, the decoded instruction list and the
+//detected platform, so reloading a ROM that was analyzed before does no decoding or analysis at all
+//Entries are written to a temporary file and moved into place, so a crash never leaves a half-written entry
+public class AnalysisCache {
+    private static final int MAGIC = 0x4D43_4143; //"MCAC"
+    //Bump whenever the analyzer or the file layout changes, older entries are then ignored and rewritten
+    private static final int VERSION = 3;
+    private final Path directory;
+
+    public AnalysisCache(Path directory) {
+        this.directory = directory;
+    }
+
+    //~/.mochachip/cache
+    public static AnalysisCache getDefault() {
+        return new AnalysisCache(Path.of(System.getProperty("user.home"), ".mochachip", "cache"));
+    }
+
+    //Analysis of the ROM currently loaded in memory, from the cache if possible
+    public ControlFlowGraph analyze(Memory memory) {
+        Rom rom = memory.getLoadedRom();
+        if (rom == null) return ControlFlowAnalyzer.analyze(memory);
+        ControlFlowGraph graph = read(rom, memory.getMemoryArray());
+        if (graph == null) {
+            graph = ControlFlowAnalyzer.analyze(memory);
+            graph.setPlatform(Platform.detect(rom, graph));
+            write(rom, graph);
+        }
+        return graph;
+    }
+
+    private Path entryPath(Rom rom) {
+        return directory.resolve(rom.getHash());
+    }
+
+    //Returns null on a miss or an unreadable entry
+    ControlFlowGraph read(Rom rom, byte[] memory) {
+        Path path = entryPath(rom);
+        if (!Files.isRegularFile(path)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            if (!in.readUTF().equals(rom.getHash()) || in.readInt() != memory.length) return null;
+            boolean[] instructionStart = readBits(in, memory.length);
+            boolean[] code = readBits(in, memory.length);
+            List<ControlFlowGraph.BasicBlock> blocks = new ArrayList<>();
+            for (int count = in.readInt(); count > 0; count--) {
+                int start = in.readUnsignedShort();
+                int end = in.readUnsignedShort();
+                int[] successors = new int[in.readUnsignedByte()];
+                for (int i = 0; i < successors.length; i++) successors[i] = in.readUnsignedShort();
+                blocks.add(new ControlFlowGraph.BasicBlock(start, end, successors));
+            }
+            List<Instruction> instructions = new ArrayList<>();
+            for (int count = in.readInt(); count > 0; count--) {
+                instructions.add(new Instruction(in.readUnsignedShort(), in.readUnsignedShort(), in.readUTF()));
+            }
+            Platform platform = Platform.valueOf(in.readUTF());
+            return new ControlFlowGraph(memory, instructionStart, code, blocks,
+                    Collections.unmodifiableList(instructions), platform);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Warning: Ignoring unreadable analysis cache entry " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    void write(Rom rom, ControlFlowGraph graph) {
+        Path path = entryPath(rom);
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, rom.getHash(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                boolean[] instructionStart = graph.getInstructionStarts();
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(rom.getHash());
+                out.writeInt(instructionStart.length);
+                writeBits(out, instructionStart);
+                writeBits(out, graph.getCodeBytes());
+                List<ControlFlowGraph.BasicBlock> blocks = graph.getBlocks();
+                out.writeInt(blocks.size());
+                for (ControlFlowGraph.BasicBlock block : blocks) {
+                    out.writeShort(block.getStartAddress());
+                    out.writeShort(block.getEndAddress());
+                    int[] successors = block.getSuccessors();
+                    out.writeByte(successors.length);
+                    for (int successor : successors) out.writeShort(successor);
+                }
+                List<Instruction> instructions = graph.getInstructions();
+                out.writeInt(instructions.size());
+                for (Instruction instruction : instructions) {
+                    out.writeShort(instruction.getAddress());
+                    out.writeShort(instruction.getByteCode());
+                    out.writeUTF(instruction.getDescription());
+                }
+                out.writeUTF(graph.getPlatform().name());
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Warning: Could not write analysis cache entry " + path + ": " + e.getMessage());
+        }
+    }
+
+    //Bitmaps are stored as longs, 64 addresses each
+    private static void writeBits(DataOutputStream out, boolean[] bits) throws IOException {
+        for (int word = 0; word < bits.length; word += 64) {
+            long value = 0;
+            for (int i = 0; i < 64 && word + i < bits.length; i++) {
+                if (bits[word + i]) value |= 1L << i;
+            }
+            out.writeLong(value);
+        }
+    }
+
+    private static boolean[] readBits(DataInputStream in, int length) throws IOException {
+        boolean[] bits = new boolean[length];
+        for (int word = 0; word < length; word += 64) {
+            long value = in.readLong();
+            for (int i = 0; i < 64 && word + i < length; i++) {
+                bits[word + i] = (value & (1L << i)) != 0;
+            }
+        }
+        return bits;
+    }
+}
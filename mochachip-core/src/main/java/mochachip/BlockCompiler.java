@@ -0,0 +1,260 @@
+package mochachip;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+import static org.objectweb.asm.Opcodes.*;
+
+//Translates basic blocks of CHIP-8 code into JVM bytecode and caches them by start address
+//Each block becomes a hidden class whose run method calls the CPU's instruction methods with constant operands,
+//so there is no fetch or dispatch left for the blocks that the JIT compiles
+//Memory writes to any byte covered by a block go through the write barrier and evict that block
+public class BlockCompiler {
+    static final int MAX_BLOCK_LENGTH = 64;
+    //Blocks rewritten more often than this are left to the interpreter instead of being recompiled forever
+    static final int MAX_RECOMPILES = 8;
+    private static final String CPU_TYPE = "mochachip/CPU";
+    private static final String PC_TYPE = "mochachip/ProgramCounter";
+    private static final String BLOCK_TYPE = "mochachip/CompiledBlock";
+
+    //Instruction method and operand list for each Decoder handler id, or null if the handler is a no-op
+    private static final String[][] HANDLER_METHODS = new String[Decoder.OP_COUNT][];
+
+    static {
+        HANDLER_METHODS[Decoder.CLS] = new String[]{"cls"};
+        HANDLER_METHODS[Decoder.RET] = new String[]{"ret"};
+        HANDLER_METHODS[Decoder.JP] = new String[]{"jp", "nnn"};
+        HANDLER_METHODS[Decoder.CALL] = new String[]{"call", "nnn"};
+        HANDLER_METHODS[Decoder.SE_BYTE] = new String[]{"seCompareByte", "x", "nn"};
+        HANDLER_METHODS[Decoder.SNE_BYTE] = new String[]{"sne", "x", "nn"};
+        HANDLER_METHODS[Decoder.SE_REG] = new String[]{"seCompareRegister", "x", "y"};
+        HANDLER_METHODS[Decoder.LD_BYTE] = new String[]{"ldByte", "x", "nn"};
+        HANDLER_METHODS[Decoder.ADD_BYTE] = new String[]{"addByte", "x", "nn"};
+        HANDLER_METHODS[Decoder.LD_REG] = new String[]{"ldRegister", "x", "y"};
+        HANDLER_METHODS[Decoder.OR] = new String[]{"logicalOR", "x", "y"};
+        HANDLER_METHODS[Decoder.AND] = new String[]{"logicalAND", "x", "y"};
+        HANDLER_METHODS[Decoder.XOR] = new String[]{"logicalXOR", "x", "y"};
+        HANDLER_METHODS[Decoder.ADD_REG] = new String[]{"addWithCarry", "x", "y"};
+        HANDLER_METHODS[Decoder.SUB] = new String[]{"subWithCarry", "x", "y"};
+        HANDLER_METHODS[Decoder.SHR] = new String[]{"bitshiftRight", "x"};
+        HANDLER_METHODS[Decoder.SUBN] = new String[]{"subWithCarryReverse", "x", "y"};
+        HANDLER_METHODS[Decoder.SHL] = new String[]{"bitshiftLeft", "x"};
+        HANDLER_METHODS[Decoder.SNE_REG] = new String[]{"sneRegister", "x", "y"};
+        HANDLER_METHODS[Decoder.LD_I] = new String[]{"ldI", "nnn"};
+        HANDLER_METHODS[Decoder.JP_V0] = new String[]{"jpTo", "nnn"};
+        HANDLER_METHODS[Decoder.RND] = new String[]{"rnd", "x", "nn"};
+        HANDLER_METHODS[Decoder.DRW] = new String[]{"draw", "x", "y", "n"};
+        HANDLER_METHODS[Decoder.SKP] = new String[]{"skp", "x"};
+        HANDLER_METHODS[Decoder.SKNP] = new String[]{"sknp", "x"};
+        HANDLER_METHODS[Decoder.LD_VX_DT] = new String[]{"ldDelayTimer", "x"};
+        HANDLER_METHODS[Decoder.LD_KEY] = new String[]{"ldKey", "x"};
+        HANDLER_METHODS[Decoder.LD_DT] = new String[]{"ldDelayTimerFromRegister", "x"};
+        HANDLER_METHODS[Decoder.LD_ST] = new String[]{"ldSoundTimer", "x"};
+        HANDLER_METHODS[Decoder.ADD_I] = new String[]{"addI", "x"};
+        HANDLER_METHODS[Decoder.LD_FONT] = new String[]{"ldFontDigit", "x"};
+        HANDLER_METHODS[Decoder.LD_BCD] = new String[]{"ldBCD", "x"};
+        HANDLER_METHODS[Decoder.LD_STORE] = new String[]{"ldIFor", "x"};
+        HANDLER_METHODS[Decoder.LD_LOAD] = new String[]{"ldIForRead", "x"};
+    }
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private final Memory memory;
+    private final ExecutionStats stats;
+    private final CompiledBlock[] blocks = new CompiledBlock[Memory.MEMORY_SIZE];
+    //Number of cached blocks covering each address
+    private final short[] coverage = new short[Memory.MEMORY_SIZE];
+    //Number of times the block starting at each address was evicted by a write
+    private final byte[] evictions = new byte[Memory.MEMORY_SIZE];
+
+    public BlockCompiler(Memory memory, ExecutionStats stats) {
+        this.memory = memory;
+        this.stats = stats;
+        memory.setBlockCompiler(this);
+        stats.setBlockCompiler(this);
+    }
+
+    //Get the cached block starting at address, compiling it first if needed
+    //Returns null if no block can be built there, in which case the interpreter should run the instruction
+    CompiledBlock blockAt(int address) {
+        if (address < 0 || address >= 4095 || evictions[address] > MAX_RECOMPILES) return null;
+        CompiledBlock block = blocks[address];
+        if (block == null) {
+            block = compile(address);
+            blocks[address] = block;
+            for (int i = block.startAddress; i < block.endAddress; i++) {
+                if (coverage[i]++ == 0) memory.setBarrier(i, Memory.BARRIER_CODE);
+            }
+        }
+        return block;
+    }
+
+    //Called through the memory write barrier when a byte covered by compiled code changes
+    void invalidate(int address) {
+        int first = Math.max(0, address - (MAX_BLOCK_LENGTH * 2 - 1));
+        for (int start = first; start <= address; start++) {
+            CompiledBlock block = blocks[start];
+            if (block != null && block.endAddress > address) {
+                evict(block);
+                if (evictions[start] <= MAX_RECOMPILES) evictions[start]++;
+            }
+        }
+    }
+
+    //Drop every compiled block, used when memory is reset
+    void flush() {
+        for (CompiledBlock block : blocks) {
+            if (block != null) evict(block);
+        }
+        Arrays.fill(evictions, (byte) 0);
+    }
+
+    private void evict(CompiledBlock block) {
+        blocks[block.startAddress] = null;
+        addRuns(block, stats.opcodeCounts);
+        for (int i = block.startAddress; i < block.endAddress; i++) {
+            if (--coverage[i] == 0) memory.clearBarrier(i, Memory.BARRIER_CODE);
+        }
+    }
+
+    //Add the instructions run by every cached block to counts, may be called from any thread
+    void addCachedRuns(long[] counts) {
+        for (CompiledBlock block : blocks) {
+            if (block != null) addRuns(block, counts);
+        }
+    }
+
+    //Forget the runs of cached blocks, on the emulation thread when the stats are reset
+    void clearRuns() {
+        for (CompiledBlock block : blocks) {
+            if (block != null) block.runs = 0;
+        }
+    }
+
+    private static void addRuns(CompiledBlock block, long[] counts) {
+        long runs = block.runs;
+        if (runs == 0) return;
+        for (int i = 0; i < block.handlers.length; i++) counts[block.handlers[i]] += runs * block.handlerCounts[i];
+    }
+
+    private CompiledBlock compile(int startAddress) {
+        byte[] ram = memory.getMemoryArray();
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(V17, ACC_FINAL | ACC_SUPER, "mochachip/GeneratedBlock", null, BLOCK_TYPE, null);
+
+        MethodVisitor constructor = classWriter.visitMethod(0, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, BLOCK_TYPE, "<init>", "()V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor run = classWriter.visitMethod(0, "run", "(L" + CPU_TYPE + ";)V", null, null);
+        run.visitCode();
+        int address = startAddress;
+        int length = 0;
+        boolean endsWithBranch = false;
+        int[] handlerCounts = new int[Decoder.OP_COUNT];
+        while (length < MAX_BLOCK_LENGTH && address < 4095) {
+            int opcode = ((ram[address] & 0xFF) << 8) | (ram[address + 1] & 0xFF);
+            int handler = Decoder.OPS[opcode];
+            handlerCounts[handler]++;
+            address += 2;
+            length++;
+            if (endsBlock(handler)) {
+                //Control flow and key waits read the PC, so it has to be exact before these run
+                emitSetPC(run, address);
+                emitInstruction(run, handler, Decoder.OPERANDS[opcode]);
+                endsWithBranch = true;
+                break;
+            }
+            emitInstruction(run, handler, Decoder.OPERANDS[opcode]);
+        }
+        if (!endsWithBranch) emitSetPC(run, address);
+        run.visitInsn(RETURN);
+        run.visitMaxs(0, 0);
+        run.visitEnd();
+        classWriter.visitEnd();
+
+        CompiledBlock block = instantiate(classWriter.toByteArray());
+        block.startAddress = startAddress;
+        block.endAddress = address;
+        block.length = length;
+        setHandlerCounts(block, handlerCounts);
+        return block;
+    }
+
+    private static void setHandlerCounts(CompiledBlock block, int[] handlerCounts) {
+        int distinct = 0;
+        for (int count : handlerCounts) {
+            if (count > 0) distinct++;
+        }
+        block.handlers = new byte[distinct];
+        block.handlerCounts = new short[distinct];
+        int i = 0;
+        for (int handler = 0; handler < handlerCounts.length; handler++) {
+            if (handlerCounts[handler] == 0) continue;
+            block.handlers[i] = (byte) handler;
+            block.handlerCounts[i] = (short) handlerCounts[handler];
+            i++;
+        }
+    }
+
+    //Jumps, calls, returns and skips change the PC, key waits stop execution,
+    //and memory stores may overwrite the block itself
+    private static boolean endsBlock(int handler) {
+        return switch (handler) {
+            case Decoder.JP, Decoder.CALL, Decoder.RET, Decoder.JP_V0, Decoder.SE_BYTE, Decoder.SNE_BYTE,
+                    Decoder.SE_REG, Decoder.SNE_REG, Decoder.SKP, Decoder.SKNP, Decoder.LD_KEY, Decoder.LD_BCD,
+                    Decoder.LD_STORE -> true;
+            default -> false;
+        };
+    }
+
+    private static void emitSetPC(MethodVisitor mv, int address) {
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitFieldInsn(GETFIELD, CPU_TYPE, "programCounter", "L" + PC_TYPE + ";");
+        pushInt(mv, address);
+        mv.visitMethodInsn(INVOKEVIRTUAL, PC_TYPE, "jump", "(I)V", false);
+    }
+
+    private static void emitInstruction(MethodVisitor mv, int handler, int operands) {
+        String[] method = HANDLER_METHODS[handler];
+        if (method == null) return;
+        mv.visitVarInsn(ALOAD, 1);
+        StringBuilder descriptor = new StringBuilder("(");
+        for (int i = 1; i < method.length; i++) {
+            pushInt(mv, switch (method[i]) {
+                case "x" -> Decoder.x(operands);
+                case "y" -> Decoder.y(operands);
+                case "n" -> Decoder.n(operands);
+                case "nn" -> Decoder.nn(operands);
+                default -> Decoder.nnn(operands);
+            });
+            descriptor.append('I');
+        }
+        descriptor.append(")V");
+        mv.visitMethodInsn(INVOKEVIRTUAL, CPU_TYPE, method[0], descriptor.toString(), false);
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value <= 5) mv.visitInsn(ICONST_0 + value);
+        else if (value <= Byte.MAX_VALUE) mv.visitIntInsn(BIPUSH, value);
+        else mv.visitIntInsn(SIPUSH, value);
+    }
+
+    private CompiledBlock instantiate(byte[] classBytes) {
+        try {
+            MethodHandles.Lookup blockLookup = lookup.defineHiddenClass(classBytes, true);
+            return (CompiledBlock) blockLookup
+                    .findConstructor(blockLookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("ERROR: Could not load compiled block.", e);
+        }
+    }
+}
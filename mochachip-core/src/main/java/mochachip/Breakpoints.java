@@ -0,0 +1,52 @@
+package mochachip;
+
+import java.util.Arrays;
+
+//Execution breakpoints kept as one bit per memory address
+//Set from the GUI thread, checked by the emulation thread only while at least one breakpoint is armed
+public class Breakpoints {
+    private final long[] bits = new long[Memory.MEMORY_SIZE / 64];
+    private int count;
+    private volatile boolean armed;
+
+    private static void checkAddress(int address) {
+        if (address < 0 || address >= Memory.MEMORY_SIZE) {
+            throw new IllegalArgumentException("Breakpoint address out of bounds: " + address);
+        }
+    }
+
+    public synchronized void set(int address, boolean enabled) {
+        checkAddress(address);
+        long mask = 1L << (address & 63);
+        boolean wasSet = (bits[address >> 6] & mask) != 0;
+        if (enabled == wasSet) return;
+        if (enabled) {
+            bits[address >> 6] |= mask;
+            count++;
+        } else {
+            bits[address >> 6] &= ~mask;
+            count--;
+        }
+        armed = count > 0;
+    }
+
+    public void toggle(int address) {
+        set(address, !isSet(address));
+    }
+
+    public boolean isSet(int address) {
+        checkAddress(address);
+        return (bits[address >> 6] & (1L << (address & 63))) != 0;
+    }
+
+    //True if any breakpoint is set, read once per frame so runs without breakpoints skip the check entirely
+    public boolean isArmed() {
+        return armed;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(bits, 0);
+        count = 0;
+        armed = false;
+    }
+}
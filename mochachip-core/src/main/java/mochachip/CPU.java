@@ -0,0 +1,848 @@
+package mochachip;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+public class CPU {
+    private volatile boolean running = false;
+
+    private int cyclesPerSecond;
+    private ExecutionEngine executionEngine = ExecutionEngine.INTERPRETER;
+    private BlockCompiler blockCompiler;
+    private static final int DEFAULT_SPEED = 500;
+    //Timers and the display run at 60 Hz, instructions are batched per frame
+    public static final int FRAME_RATE = 60;
+    public static final long FRAME_NANOS = 1_000_000_000L / FRAME_RATE;
+    private static final int MAX_FRAME_LAG = 5;
+    long cycleCredit;
+    //Time spent executing the last frame
+    private long frameTime;
+    Memory memory;
+    ProgramCounter programCounter;
+    Registers registers;
+    Input input;
+    Stack stack;
+    FrameBuffer frameBuffer;
+    boolean waitingForKeyPress = false;
+    int waitingRegister;
+    //Front end to tell about breakpoints, null when nothing is listening
+    private MachineListener listener;
+    private int currentOpcode;
+    private final Breakpoints breakpoints = new Breakpoints();
+    private final Watchpoints watchpoints = new Watchpoints();
+    //Set when the frame loop stops on a breakpoint or a pausing watchpoint
+    private boolean debugStopped;
+    //Address of the breakpoint we just stopped on, so resuming doesn't stop on it again straight away
+    private int breakpointResumeAddress = -1;
+    long instructionCount;
+    //Set when the program jumps to itself, the usual way CHIP-8 programs end
+    boolean halted;
+    //Bumped by every draw and clear, so the idle loop detector can tell the screen hasn't changed
+    long screenWrites;
+    final Xorshift random = new Xorshift(System.nanoTime());
+    //Thread running start(), unparked by anything that needs it while it sleeps waiting for a key
+    private volatile Thread emulationThread;
+    //Paused machines stay between frames, set when a breakpoint or pausing watchpoint stops the frame loop
+    private volatile boolean paused;
+    //Set by Emulator when a command is waiting, start() returns at the end of the current frame
+    volatile boolean yieldRequested;
+    //Optional frame history, captured after every frame of start() and played back while rewinding is held
+    private RewindBuffer rewindBuffer;
+    private volatile boolean rewinding;
+    //Deterministic mode samples the keypad once per frame, from the live keypad or a recorded log,
+    //so a run only depends on the seed, the speed and the per-frame key masks
+    private boolean deterministic;
+    private int keyMask;
+    private InputLog inputRecording;
+    private InputLog.Player inputPlayback;
+    private final ExecutionStats stats = new ExecutionStats(this);
+    //Null unless profiling, so normal runs only pay for a null check per step
+    private Profiler profiler;
+    private final IdleLoopDetector idleLoopDetector = new IdleLoopDetector(this);
+    private boolean idleSkipping = true;
+
+    public CPU(Input input, FrameBuffer frameBuffer) {
+        this.frameBuffer = frameBuffer;
+        this.input = input;
+        setCyclesPerSecond(DEFAULT_SPEED);
+    }
+
+    public CPU(Input input, FrameBuffer frameBuffer, int speed) {
+        this.frameBuffer = frameBuffer;
+        this.input = input;
+        setCyclesPerSecond(speed);
+    }
+
+    public void start() {
+        running = true;
+        emulationThread = Thread.currentThread();
+        try {
+            long nextFrameTime = System.nanoTime();
+
+            while (running && !paused && !yieldRequested && !Thread.currentThread().isInterrupted()) {
+                if (isIdleUntilKeyPress()) {
+                    //Frames would change nothing until a key arrives, so sleep until one does instead of every frame
+                    long sleepStart = System.nanoTime();
+                    input.awaitKeyPress();
+                    stats.sleepNanos += System.nanoTime() - sleepStart;
+                    nextFrameTime = System.nanoTime();
+                    continue;
+                }
+                //A recording only logs keys, so it can't follow the machine back in time
+                if (rewinding && rewindBuffer != null && inputRecording == null) {
+                    rewindFrame();
+                } else {
+                    runFrame();
+                    if (rewindBuffer != null) rewindBuffer.capture(this);
+                }
+                if (debugStopped) {
+                    debugStopped = false;
+                    paused = true;
+                    if (listener != null) listener.breakpointHit(programCounter.currentAddress);
+                    break;
+                }
+                nextFrameTime += FRAME_NANOS;
+                long sleepTime = nextFrameTime - System.nanoTime();
+                if (sleepTime > 0) {
+                    //Sleep once per frame rather than once per instruction
+                    long sleepStart = System.nanoTime();
+                    LockSupport.parkNanos(sleepTime);
+                    stats.sleepNanos += System.nanoTime() - sleepStart;
+                } else if (sleepTime < -MAX_FRAME_LAG * FRAME_NANOS) {
+                    //Fell too far behind (host stall, debugger breakpoint) - don't try to catch up in a burst
+                    nextFrameTime = System.nanoTime();
+                }
+            }
+        } finally {
+            //Also on a ROM fault, so the machine isn't left looking like it's still running
+            finishEmulating();
+        }
+    }
+
+    //Run one 60 Hz frame: a batch of instructions worth 1/60th of a second, then a single timer tick
+    public void runFrame() {
+        long frameStart = System.nanoTime();
+        //Credit is kept in 1/60ths of a cycle so fractional budgets carry over instead of drifting,
+        //and compiled blocks that overshoot the budget are paid back next frame
+        if (deterministic) latchInput();
+        cycleCredit += cyclesPerSecond;
+        if (watchpoints.hasPendingChanges()) watchpoints.apply();
+        //Breakpoints and watchpoints are only looked at while armed, so normal runs pay nothing for them
+        boolean debugChecks = breakpoints.isArmed() || watchpoints.isArmed();
+        idleLoopDetector.reset();
+        while (cycleCredit >= FRAME_RATE && running) {
+            if (waitingForKeyPress && !pollKeyPress()) {
+                //Nothing to run until a key arrives, drop the rest of this frame's budget
+                cycleCredit = Math.min(cycleCredit, 0);
+                break;
+            }
+            int executed;
+            int address = programCounter.currentAddress;
+            if (debugChecks) {
+                if (address != breakpointResumeAddress && breakpoints.isSet(address)) {
+                    breakpointResumeAddress = address;
+                    debugStopped = true;
+                    break;
+                }
+                //One instruction at a time so a compiled block can't run past a breakpoint
+                prepareCycle();
+                cycle();
+                executed = 1;
+            } else {
+                executed = step();
+            }
+            breakpointResumeAddress = -1;
+            instructionCount += executed;
+            cycleCredit -= executed * FRAME_RATE;
+            if (profiler != null) profiler.record(address, executed, stack, programCounter.currentAddress);
+            if (debugChecks && watchpoints.consumeTrigger()) {
+                debugStopped = true;
+                break;
+            }
+            //Only a backward jump can start another trip around an idle loop, so nothing else pays for the check
+            int lastAddress = address + (executed - 1) * 2;
+            if (idleSkipping && programCounter.currentAddress <= lastAddress) {
+                int trip = idleLoopDetector.backEdge(programCounter.currentAddress, lastAddress);
+                //Spinning until the next timer tick: every trip that still fits in the frame ends back here in the
+                //same state, so only its cost is paid. The remainder runs normally and ends where a full run would
+                long skipped = trip > 0 ? cycleCredit / FRAME_RATE / trip * trip : 0;
+                if (skipped > 0) {
+                    stats.idleFrames++;
+                    stats.idleInstructionsSkipped += skipped;
+                    instructionCount += skipped;
+                    cycleCredit -= skipped * FRAME_RATE;
+                }
+            }
+        }
+        if (registers.delayTimer != 0 || registers.soundTimer != 0) stats.timerTicks++;
+        registers.update();
+        memory.publishDirtyLines();
+        frameBuffer.endFrame();
+        long frameEnd = System.nanoTime();
+        frameTime = frameEnd - frameStart;
+        stats.executeNanos += frameTime;
+        stats.endFrame(frameEnd);
+    }
+
+    //Step back one recorded frame instead of running a new one
+    private void rewindFrame() {
+        rewindBuffer.rewind(this);
+    }
+
+    //Run frames back to back without sleeping, for headless and batch use
+    //Stops after maxFrames, when stop() is called, or once haltCondition is met. Returns the number of frames run
+    public long runUnthrottled(long maxFrames, Predicate<CPU> haltCondition) {
+        running = true;
+        long frames = 0;
+        while (running && frames < maxFrames && !haltCondition.test(this)) {
+            runFrame();
+            frames++;
+            if (debugStopped) {
+                debugStopped = false;
+                break;
+            }
+        }
+        running = false;
+        finishEmulating();
+        return frames;
+    }
+
+    //Unpark the emulation thread if it is asleep waiting for a key, e.g. to stop, pause or run an Emulator command
+    private void wake() {
+        Thread thread = emulationThread;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    //Fx0A with no key held and both timers at zero, nothing but a key press or a request from another thread
+    //can change the machine. Deterministic runs keep stepping frames so the input log stays in sync
+    private boolean isIdleUntilKeyPress() {
+        return waitingForKeyPress && !deterministic && !rewinding && !input.isAnyKeyPressed()
+                && registers.delayTimer == 0 && registers.soundTimer == 0 && !yieldRequested;
+    }
+
+    private void finishEmulating() {
+        emulationThread = null;
+    }
+
+    //Snapshot the whole machine into state, only call between frames (see Emulator.execute)
+    public void saveState(SaveState state) {
+        state.capture(this);
+    }
+
+    //Restore the whole machine from state, only call between frames (see Emulator.execute)
+    public void loadState(SaveState state) {
+        if (inputRecording != null) throw new IllegalStateException("Can't load a state while recording input");
+        state.restore(this);
+        breakpointResumeAddress = -1;
+        frameBuffer.endFrame();
+    }
+
+    //Set before start(), or from an Emulator command
+    public void setRewindBuffer(RewindBuffer rewindBuffer) {
+        this.rewindBuffer = rewindBuffer;
+    }
+
+    public RewindBuffer getRewindBuffer() {
+        return rewindBuffer;
+    }
+
+    //While true, start() plays recorded frames backwards at the normal frame rate
+    public void setRewinding(boolean rewinding) {
+        this.rewinding = rewinding;
+        if (rewinding) wake();
+    }
+
+    //Seed the RNG and switch to per-frame input sampling, call before the first frame
+    public void enableDeterministicMode(long seed) {
+        deterministic = true;
+        random.setSeed(seed);
+    }
+
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    //Append every latched key mask to log, or stop recording with null. Only used in deterministic mode
+    public void setInputRecording(InputLog log) {
+        this.inputRecording = log;
+    }
+
+    //Take key masks from a recorded log instead of the keypad. Only used in deterministic mode
+    public void setInputPlayback(InputLog.Player player) {
+        this.inputPlayback = player;
+    }
+
+    public Xorshift getRandom() {
+        return random;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    //Only checked between frames, a running start() returns once the current frame is done
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        if (paused) wake();
+    }
+
+    //Called by Emulator when the program crashes the machine, e.g. returning with an empty stack.
+    //The machine is paused where it stopped so the debugger can show what happened
+    void fault(RuntimeException error) {
+        paused = true;
+        System.out.println("Warning: Emulation stopped at " + String.format("0x%03X", programCounter.currentAddress)
+                + ": " + error);
+        if (listener != null) listener.machineFault(programCounter.currentAddress, error);
+    }
+
+    //Make start() return at the end of the current frame, e.g. so the Emulator can run a command
+    void yieldFrames() {
+        yieldRequested = true;
+        wake();
+    }
+
+    //Execute a single instruction outside the frame loop, used by the debugger's step mode
+    public void stepInstruction() {
+        if (waitingForKeyPress && !pollKeyPress()) return;
+        if (watchpoints.hasPendingChanges()) watchpoints.apply();
+        int address = programCounter.currentAddress;
+        prepareCycle();
+        cycle();
+        if (profiler != null) profiler.record(address, 1, stack, programCounter.currentAddress);
+        watchpoints.consumeTrigger();
+        breakpointResumeAddress = -1;
+        instructionCount++;
+        memory.publishDirtyLines();
+        frameBuffer.endFrame();
+    }
+
+    //Copy registers, PC and stack into a snapshot for the debugger
+    //Safe to call from another thread - the copy may mix values from adjacent instructions, which is fine for display
+    public void captureState(MachineState state) {
+        state.capture(registers, programCounter, stack);
+    }
+
+    private void latchInput() {
+        keyMask = inputPlayback != null ? inputPlayback.nextFrame() : input.getKeyMask();
+        if (inputRecording != null) inputRecording.record(keyMask);
+    }
+
+    //Keys the program sees right now, the latched mask in deterministic mode
+    int getKeyMask() {
+        return deterministic ? keyMask : input.getKeyMask();
+    }
+
+    private boolean isKeyDown(int key) {
+        return deterministic ? (keyMask & (1 << (key & 0xF))) != 0 : input.isKeyPressed(key);
+    }
+
+    //Check if a key arrived for an Fx0A wait, store it in the waiting register if so
+    private boolean pollKeyPress() {
+        if (deterministic) {
+            if (keyMask == 0) return false;
+            //Lowest held key, so the result only depends on the latched mask
+            registers.variableRegisters[waitingRegister] = (byte) Integer.numberOfTrailingZeros(keyMask);
+            waitingForKeyPress = false;
+            waitingRegister = -1;
+            return true;
+        }
+        int mask = input.getKeyMask();
+        if (mask != 0) {
+            int key = input.getLastKeyPressed();
+            //A key held since before the wait has no press to report, take the lowest held one instead
+            if ((mask & 1 << key) == 0) key = Integer.numberOfTrailingZeros(mask);
+            registers.variableRegisters[waitingRegister] = (byte) key;
+            input.resetLastKeyPressed();
+            waitingForKeyPress = false;
+            waitingRegister = -1;
+            return true;
+        }
+        return false;
+    }
+
+    public void stop() {
+        running = false;
+        wake();
+        frameBuffer.clear();
+        frameBuffer.endFrame();
+    }
+
+    public void togglePause() {
+        setPaused(!paused);
+    }
+
+    public void reset() {
+        this.memory = new Memory();
+        this.stack = new Stack();
+        this.programCounter = new ProgramCounter();
+        this.registers = new Registers();
+        watchpoints.attach(memory, programCounter);
+        this.halted = false;
+        this.blockCompiler = executionEngine == ExecutionEngine.BLOCK_JIT ? new BlockCompiler(memory, stats) : null;
+    }
+
+    //Run the next instruction, or the next compiled block when the JIT is enabled
+    //Returns the number of instructions executed
+    public int step() {
+        if (blockCompiler != null) {
+            CompiledBlock block = blockCompiler.blockAt(programCounter.getCurrentAddress());
+            //Deterministic runs never let a block overshoot the frame budget, so both engines execute
+            //exactly the same instructions each frame and a replay doesn't depend on the engine
+            if (block != null && (!deterministic || (long) block.length * FRAME_RATE <= cycleCredit)) {
+                block.run(this);
+                block.runs++;
+                return block.length;
+            }
+        }
+        prepareCycle();
+        cycle();
+        return 1;
+    }
+
+    public void prepareCycle() {
+        currentOpcode = fetch();
+    }
+
+    public void cycle() {
+        execute(currentOpcode);
+    }
+
+    //Fetch a 2-byte opcode at the address in memory and advance the PC
+    public int fetch() {
+        int address = programCounter.getCurrentAddress();
+        if (address < 0 || address >= 4095) {
+            throw new IllegalArgumentException("ERROR: Program counter out of bounds.");
+        }
+        byte[] ram = memory.getMemoryArray();
+        //Shift the first byte to the upper half, then OR with the second byte to combine the 2 bytes
+        int opcode = ((ram[address] & 0xFF) << 8) | (ram[address + 1] & 0xFF);
+        programCounter.incrementPC();
+        return opcode;
+    }
+
+    //Fetch a 2-byte instruction at address in memory, wrapped in an Instruction for display purposes
+    public Instruction fetchInstruction() {
+        int address = programCounter.getCurrentAddress();
+        return new Instruction(address, fetch());
+    }
+
+    public void decode(Instruction instruction) {
+        execute(instruction.getByteCode());
+    }
+
+    //Execute a raw 16-bit opcode using the predecoded dispatch table
+    public void execute(int opcode) {
+        int operands = Decoder.OPERANDS[opcode];
+        int x = Decoder.x(operands);
+        int y = Decoder.y(operands);
+        int handler = Decoder.OPS[opcode];
+        stats.opcodeCounts[handler]++;
+
+        switch (handler) {
+            //00e0 CLS -  clear screen
+            case Decoder.CLS -> cls();
+            //00ee RET - return
+            case Decoder.RET -> ret();
+            //1nnn JP addr - jump
+            case Decoder.JP -> jp(Decoder.nnn(operands));
+            //2nnn CALL addr - call subroutine
+            case Decoder.CALL -> call(Decoder.nnn(operands));
+            //3xnn SE Vx, byte - Skip next instruction if Vx = nn
+            case Decoder.SE_BYTE -> seCompareByte(x, Decoder.nn(operands));
+            //4xnn SNE Vx, byte - Skip next instruction if Vx != nn
+            case Decoder.SNE_BYTE -> sne(x, Decoder.nn(operands));
+            //5xy0 SE Vx, Vy - Skip next instruction if Vx = Vy
+            case Decoder.SE_REG -> seCompareRegister(x, y);
+            //6xnn LD Vx, byte - Puts value of nn into Vx
+            case Decoder.LD_BYTE -> ldByte(x, Decoder.nn(operands));
+            //7xnn ADD Vx, byte - Set Vx = Vx + nn
+            case Decoder.ADD_BYTE -> addByte(x, Decoder.nn(operands));
+            //8xy0 LD Vx, Vy - Set Vx = Vy
+            case Decoder.LD_REG -> ldRegister(x, y);
+            // 8xy1 OR Vx, Vy - Set Vx = Vx OR Vy
+            case Decoder.OR -> logicalOR(x, y);
+            //8xy2 AND Vx, Vy - Set Vx = Vx & Vy
+            case Decoder.AND -> logicalAND(x, y);
+            // 8xy3 XOR Vx, Vy - Set Vx = Vx ^ Vy
+            case Decoder.XOR -> logicalXOR(x, y);
+            //8xy4 ADD Vx, Vy - Set Vx - Vx + Vy, set VF carry
+            case Decoder.ADD_REG -> addWithCarry(x, y);
+            // 8xy5 SUB Vx, Vy - Set Vx = Vx - Vy
+            case Decoder.SUB -> subWithCarry(x, y);
+            //8xy6 SHR Vx {, Vy} - Set Vx = Vx SHR 1 (shift right)
+            case Decoder.SHR -> bitshiftRight(x);
+            // 8xy7 SUBN Vx, Vy - Set Vx = Vy - Vx
+            case Decoder.SUBN -> subWithCarryReverse(x, y);
+            //8xyE SHL Vx {, Vy}
+            case Decoder.SHL -> bitshiftLeft(x);
+            //9xy0 SNE Vx, Vy - Skip next  instruction if Vx != Vy
+            case Decoder.SNE_REG -> sneRegister(x, y);
+            // Annn LD I, addr - Set I to nnn
+            case Decoder.LD_I -> ldI(Decoder.nnn(operands));
+            // Bnnn JP V0, addr - Jump to location nnn + V0
+            case Decoder.JP_V0 -> jpTo(Decoder.nnn(operands));
+            // Cxnn RND Vx, byte - Set Vx = random byte AND nn
+            case Decoder.RND -> rnd(x, Decoder.nn(operands));
+            //Dxyn  DRW Vx, Vy, nibble
+            //Display n-byte sprite starting at memory location I at (Vx, Vy), set VF = collision.
+            case Decoder.DRW -> draw(x, y, Decoder.n(operands));
+            //Ex9E  SKP Vx
+            case Decoder.SKP -> skp(x);
+            //ExA1 - SKNP Vx
+            case Decoder.SKNP -> sknp(x);
+            // Fx07 LD Vx, DT - Set Vx = delay timer value
+            case Decoder.LD_VX_DT -> ldDelayTimer(x);
+            //Fx0A  LD Vx, K
+            case Decoder.LD_KEY -> ldKey(x);
+            // Fx15 LD DT, Vx - Set delay timer = Vx
+            case Decoder.LD_DT -> ldDelayTimerFromRegister(x);
+            // Fx18 LD ST, Vx - Set sound timer = Vx
+            case Decoder.LD_ST -> ldSoundTimer(x);
+            // Fx1E ADD I, Vx - Set I = I + Vx
+            case Decoder.ADD_I -> addI(x);
+            // Fx29 LD F, Vx - Set I = location of sprite digit Vx
+            case Decoder.LD_FONT -> ldFontDigit(x);
+            //Fx33 LD B, Vx
+            case Decoder.LD_BCD -> ldBCD(x);
+            //Fx55 LD [I], Vx
+            case Decoder.LD_STORE -> ldIFor(x);
+            //Fx65 - LD Vx, [I]
+            case Decoder.LD_LOAD -> ldIForRead(x);
+            //0nnn SYS addr and unknown opcodes are ignored
+            default -> {
+            }
+        }
+    }
+
+    public void ret() {
+        int returnAddress = stack.pop();
+        programCounter.jump(returnAddress);
+    }
+
+    public void call(int address) {
+        stack.push(programCounter.currentAddress);
+        programCounter.jump(address);
+    }
+
+    //Draw sprite at x, y, with height n
+    //Each sprite row is XORed onto the packed framebuffer in one go, wrapping around both edges
+    public void draw(int x, int y, int height) {
+        screenWrites++;
+        int vx = (registers.variableRegisters[x] & 0xFF) % FrameBuffer.WIDTH;
+        int vy = registers.variableRegisters[y] & 0xFF;
+        boolean collision = false;
+        for (int row = 0; row < height; row++) {
+            int spriteByte = memory.read(registers.indexRegister + row) & 0xFF;
+            if (spriteByte != 0) {
+                collision |= frameBuffer.drawSpriteRow(vx, (vy + row) % FrameBuffer.HEIGHT, spriteByte);
+            }
+        }
+        registers.setVariableRegister(0xF, collision ? 1 : 0);
+    }
+
+
+    public void cls() {
+        screenWrites++;
+        frameBuffer.clear();
+    }
+
+    public void jp(int nnn) {
+        //The PC has already moved past this jump, so a jump to itself lands 2 bytes back
+        if (nnn == programCounter.currentAddress - 2) halted = true;
+        programCounter.jump(nnn);
+    }
+
+    public void jpTo(int nnn) {
+        int vx = registers.variableRegisters[0] & 0xFF;
+        programCounter.jump(nnn + vx);
+    }
+
+    public void seCompareByte(int x, int nn) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        int val = nn & 0xFF;
+        if (vx == val) programCounter.incrementPC();
+    }
+
+    public void seCompareRegister(int x, int y) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        int vy = registers.variableRegisters[y] & 0xFF;
+        if (vx == vy) {
+            programCounter.incrementPC();
+        }
+    }
+
+    public void sne(int x, int nn) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        int val = nn & 0xFF;
+        if (vx != val) programCounter.incrementPC();
+    }
+
+    public void sneRegister(int x, int y) {
+        if (registers.variableRegisters[x] != registers.variableRegisters[y]) programCounter.incrementPC();
+    }
+
+    public void addByte(int x, int nn) {
+        //Notes and reminders:
+        //& 0xFF masking will clamp variables to unsigned 8-bit values - anything outside range will roll over/under as expected
+        //Java will cast all unsigned data to signed every chance it gets
+        //All instruction implementations should follow this sort of design strategy of first converting our input values
+        //into properly unsigned data within 8 bits.
+        int val = nn & 0xFF; //Mask nibble nn to unsigned 8-bit value
+        int vx = registers.variableRegisters[x] & 0xFF; //Get the current value of Vx and unsign it
+        //Add the two values - we mask the result afterward because Java upcasts data to signed integers before math.
+        int result = (vx + val) & 0xFF;
+        //We cast the result down to 8-bits, removing any data that is not the least-significant 8 bits
+        registers.setVariableRegister(x, result);
+    }
+
+    public void addWithCarry(int x, int y) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        int vy = registers.variableRegisters[y] & 0xFF;
+        int result = (vx + vy) & 0xFF;
+        int intResult = vx + vy;
+        registers.setVariableRegister(x, result);
+        registers.setVariableRegister(0xF, (intResult > 255 ? 1 : 0));
+
+    }
+
+    public void addI(int x) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        //int i = registers.indexRegister & 0xFFF; //Index register is a 12-bit value!
+        registers.setIndexRegister(registers.getIndexRegister() + vx);
+    }
+
+    public void subWithCarry(int x, int y) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        int vy = registers.variableRegisters[y] & 0xFF;
+        int result = vx - vy;
+
+        registers.setVariableRegister(x, (result & 0xFF));
+        registers.setVariableRegister(0xF, ((vx >= vy) ? 1 : 0));
+
+    }
+
+
+    public void subWithCarryReverse(int x, int y) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        int vy = registers.variableRegisters[y] & 0xFF;
+        int result = vy - vx;
+
+        registers.setVariableRegister(x, (result & 0xFF));
+        registers.setVariableRegister(0xF, (vy >= vx ? 1 : 0));
+
+    }
+
+    public void ldByte(int x, int nn) {
+        int val = nn & 0xFF;
+        registers.setVariableRegister(x, val);
+    }
+
+    public void ldRegister(int x, int y) {
+        registers.setVariableRegister(x, registers.variableRegisters[y]);
+    }
+
+    public void ldI(int nnn) {
+        registers.setIndexRegister((nnn & 0xFFF));
+    }
+
+    public void ldIFor(int x) {
+        if (x == 0) memory.write(registers.indexRegister, registers.variableRegisters[0]);
+        else {
+            for (int i = 0; i <= x; i++) {
+                memory.write(registers.indexRegister + i, registers.variableRegisters[i]);
+            }
+        }
+    }
+
+    public void ldIForRead(int x) {
+        if (x == 0) registers.setVariableRegister(0, memory.read(registers.indexRegister));
+        else {
+            for (int i = 0; i <= x; i++) {
+                registers.setVariableRegister(i, memory.read(registers.indexRegister + i));
+            }
+        }
+    }
+
+    public void ldDelayTimer(int x) {
+        int val = registers.delayTimer & 0xFF;
+        registers.setVariableRegister(x, val);
+    }
+
+    public void ldDelayTimerFromRegister(int x) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        registers.setDelayTimer(vx);
+    }
+
+    public void ldSoundTimer(int x) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        registers.setSoundTimer(vx);
+    }
+
+    public void ldKey(int x) {
+        waitingForKeyPress = true;
+        waitingRegister = x;
+    }
+
+    public void ldFontDigit(int x) {
+        int digit = registers.variableRegisters[x] & 0xFF;
+        registers.setIndexRegister(memory.getAddressOfDigit(digit));
+    }
+
+    public void ldBCD(int x) {
+        int dec = registers.variableRegisters[x] & 0xFF;
+        int hundreds = (dec / 100) & 0xFF;
+        int tens = ((dec / 10) % 10) & 0xFF;
+        int ones = (dec % 10) & 0xFF;
+
+        memory.write(registers.indexRegister, (byte) hundreds); // Hundreds place
+        memory.write(registers.indexRegister + 1, (byte) tens); // Tens place
+        memory.write(registers.indexRegister + 2, (byte) ones); // Ones place
+    }
+
+    public void logicalOR(int x, int y) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        int vy = registers.variableRegisters[y] & 0xFF;
+        registers.setVariableRegister(x, ((vx | vy)) & 0xFF);
+
+    }
+
+    public void logicalAND(int x, int y) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        int vy = registers.variableRegisters[y] & 0xFF;
+        registers.setVariableRegister(x, ((vx & vy)) & 0xFF);
+    }
+
+    public void logicalXOR(int x, int y) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        int vy = registers.variableRegisters[y] & 0xFF;
+        registers.setVariableRegister(x, (vx ^ vy) & 0xFF);
+
+    }
+
+    public void bitshiftRight(int x) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        int lsb = vx & 0x01;
+        int shiftedValue = (vx >> 1) & 0xFF;
+
+        registers.setVariableRegister(x, shiftedValue);
+        registers.setVariableRegister(0xF, lsb);
+
+    }
+
+    public void bitshiftLeft(int x) {
+        int vx = registers.variableRegisters[x] & 0xFF;
+        // Store the most significant bit in carry flag (VF)
+        byte shiftedValue = (byte) ((vx << 1) & 0xFF);
+        byte msb = (byte) (((vx & 0x80) >> 7) & 0xFF);
+        registers.setVariableRegister(x, shiftedValue);
+        registers.setVariableRegister(0xF, msb);
+
+    }
+
+    public void rnd(int x, int nn) {
+        int rand = random.nextByte();
+        int val = nn & 0xFF;
+        int result = (rand & val) & 0xFF;
+        registers.setVariableRegister(x, result);
+    }
+
+    public void skp(int x) {
+        if (isKeyDown(registers.variableRegisters[x])) {
+            programCounter.incrementPC();
+        }
+    }
+
+    public void sknp(int x) {
+        if (!isKeyDown(registers.variableRegisters[x])) {
+            programCounter.incrementPC();
+        }
+    }
+
+    public Memory getMemory() {
+        return memory;
+    }
+
+    public FrameBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+
+    public long getInstructionCount() {
+        return instructionCount;
+    }
+
+    public boolean isHalted() {
+        return halted;
+    }
+
+    public Breakpoints getBreakpoints() {
+        return breakpoints;
+    }
+
+    //Start or stop profiling, pass null to stop. Set before running or from an Emulator command
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    //Skip the rest of a frame once the program is spinning in an idle loop, on by default
+    public void setIdleSkipping(boolean idleSkipping) {
+        this.idleSkipping = idleSkipping;
+    }
+
+    public boolean isIdleSkipping() {
+        return idleSkipping;
+    }
+
+    public ExecutionStats getStats() {
+        return stats;
+    }
+
+    public Watchpoints getWatchpoints() {
+        return watchpoints;
+    }
+
+    public ProgramCounter getProgramCounter() {
+        return programCounter;
+    }
+
+    public Registers getRegisters() {
+        return registers;
+    }
+
+    public int getCyclesPerSecond() {
+        return cyclesPerSecond;
+    }
+
+    public void setCyclesPerSecond(int cyclesPerSecond) {
+        //The log's header holds a single speed for the whole recording
+        if (inputRecording != null && cyclesPerSecond != this.cyclesPerSecond) {
+            System.out.println("Warning: Speed can't change while recording input");
+            return;
+        }
+        this.cyclesPerSecond = cyclesPerSecond;
+    }
+
+    public ExecutionEngine getExecutionEngine() {
+        return executionEngine;
+    }
+
+    //Pick the engine for this session, takes effect on the next reset
+    public void setExecutionEngine(ExecutionEngine executionEngine) {
+        this.executionEngine = executionEngine;
+    }
+
+    public void setListener(MachineListener listener) {
+        this.listener = listener;
+    }
+
+    public long getFrameTime() {
+        return frameTime;
+    }
+
+    public MachineListener getListener() {
+        return listener;
+    }
+}
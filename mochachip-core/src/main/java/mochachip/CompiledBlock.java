@@ -0,0 +1,17 @@
+package mochachip;
+
+//Base class for basic blocks translated to JVM bytecode by BlockCompiler
+//Each generated subclass runs a straight-line run of CHIP-8 instructions and leaves the PC at the next block
+abstract class CompiledBlock {
+    int startAddress;
+    //First address past the block, so the block covers [startAddress, endAddress)
+    int endAddress;
+    int length;
+    //Distinct Decoder handler ids in the block and how many times each appears, for ExecutionStats
+    byte[] handlers;
+    short[] handlerCounts;
+    //Times the block has run, folded into ExecutionStats when it is evicted
+    long runs;
+
+    abstract void run(CPU cpu);
+}
@@ -0,0 +1,91 @@
+package mochachip;
+
+//Static disassembler that recovers the code of a program without running it
+//Starting from the entry point, a worklist follows every jump, call and skip edge, marking the bytes it reaches
+//as code - everything never reached is treated as data
+//Each address is decoded at most once, so the whole analysis is linear in the size of memory
+public final class ControlFlowAnalyzer {
+    private ControlFlowAnalyzer() {
+    }
+
+    public static ControlFlowGraph analyze(Memory memory) {
+        return analyze(memory.getMemoryArray(), Memory.PROGRAM_START_ADDRESS);
+    }
+
+    public static ControlFlowGraph analyze(byte[] memory, int entryAddress) {
+        int size = memory.length;
+        boolean[] instructionStart = new boolean[size];
+        boolean[] code = new boolean[size];
+        boolean[] leader = new boolean[size];
+        //Every address is pushed at most once, as either the entry point or a branch target
+        int[] worklist = new int[size + 1];
+        int pending = 0;
+
+        if (isDecodable(entryAddress, size)) {
+            worklist[pending++] = entryAddress;
+            leader[entryAddress] = true;
+        }
+        while (pending > 0) {
+            int address = worklist[--pending];
+            //Walk straight-line code until it branches away or runs into something already decoded
+            while (isDecodable(address, size)) {
+                if (instructionStart[address]) {
+                    //Fell into code decoded by an earlier walk, which now has to start a block here
+                    leader[address] = true;
+                    break;
+                }
+                int opcode = opcodeAt(memory, address);
+                int handler = Decoder.OPS[opcode];
+                if (handler == Decoder.INVALID) break;
+                instructionStart[address] = true;
+                code[address] = true;
+                code[address + 1] = true;
+
+                int next = address + 2;
+                int target = Decoder.nnn(Decoder.OPERANDS[opcode]);
+                switch (handler) {
+                    case Decoder.JP, Decoder.JP_V0 -> {
+                        //JP V0 can land anywhere up to 255 bytes past nnn, only the base is known statically
+                        pending = push(worklist, pending, leader, target, size);
+                        next = -1;
+                    }
+                    case Decoder.CALL -> {
+                        pending = push(worklist, pending, leader, target, size);
+                        pending = push(worklist, pending, leader, next, size);
+                        next = -1;
+                    }
+                    //0nnn machine code routines can't run here, and 0000 is usually zero padding after the
+                    //program, so nothing past one is walked as code
+                    case Decoder.RET, Decoder.SYS -> next = -1;
+                    case Decoder.SE_BYTE, Decoder.SNE_BYTE, Decoder.SE_REG, Decoder.SNE_REG, Decoder.SKP,
+                            Decoder.SKNP -> {
+                        pending = push(worklist, pending, leader, next, size);
+                        pending = push(worklist, pending, leader, next + 2, size);
+                        next = -1;
+                    }
+                    default -> {
+                    }
+                }
+                if (next < 0) break;
+                address = next;
+            }
+        }
+        return new ControlFlowGraph(memory, instructionStart, code, leader);
+    }
+
+    static int opcodeAt(byte[] memory, int address) {
+        return ((memory[address] & 0xFF) << 8) | (memory[address + 1] & 0xFF);
+    }
+
+    //Both bytes of the instruction must be inside memory
+    private static boolean isDecodable(int address, int size) {
+        return address >= 0 && address < size - 1;
+    }
+
+    private static int push(int[] worklist, int pending, boolean[] leader, int address, int size) {
+        if (!isDecodable(address, size) || leader[address]) return pending;
+        leader[address] = true;
+        worklist[pending] = address;
+        return pending + 1;
+    }
+}
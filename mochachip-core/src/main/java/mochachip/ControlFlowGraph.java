@@ -0,0 +1,172 @@
+package mochachip;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+//Result of a ControlFlowAnalyzer pass - which bytes are code, and the basic blocks and edges between them
+//Built from a snapshot of memory, so it stays valid while the program keeps running
+public class ControlFlowGraph {
+    private final byte[] memory;
+    private final boolean[] instructionStart;
+    private final boolean[] code;
+    private final List<BasicBlock> blocks = new ArrayList<>();
+    //Index into blocks for every address inside a block, or -1
+    private final int[] blockIndex;
+    //Decoded on first use, or handed over by AnalysisCache
+    private List<Instruction> instructions;
+    //Only known when the graph came through AnalysisCache, which detects it once per ROM
+    private Platform platform;
+
+    ControlFlowGraph(byte[] memory, boolean[] instructionStart, boolean[] code, boolean[] leader) {
+        this.memory = memory.clone();
+        this.instructionStart = instructionStart;
+        this.code = code;
+        this.blockIndex = new int[memory.length];
+        Arrays.fill(blockIndex, -1);
+        buildBlocks(leader);
+    }
+
+    //Rebuilds a graph from AnalysisCache without decoding anything
+    ControlFlowGraph(byte[] memory, boolean[] instructionStart, boolean[] code, List<BasicBlock> blocks,
+                     List<Instruction> instructions, Platform platform) {
+        this.memory = memory.clone();
+        this.instructionStart = instructionStart;
+        this.code = code;
+        this.blockIndex = new int[memory.length];
+        Arrays.fill(blockIndex, -1);
+        for (BasicBlock block : blocks) addBlock(block);
+        this.instructions = instructions;
+        this.platform = platform;
+    }
+
+    //One pass in address order - a block runs until a branch, or until the next instruction starts another block
+    private void buildBlocks(boolean[] leader) {
+        for (int start = 0; start < instructionStart.length; start++) {
+            if (!leader[start] || !instructionStart[start]) continue;
+            int address = start;
+            int[] successors;
+            while (true) {
+                int opcode = ControlFlowAnalyzer.opcodeAt(memory, address);
+                int handler = Decoder.OPS[opcode];
+                int next = address + 2;
+                int target = Decoder.nnn(Decoder.OPERANDS[opcode]);
+                successors = switch (handler) {
+                    case Decoder.JP, Decoder.JP_V0 -> new int[]{target};
+                    case Decoder.CALL -> new int[]{target, next};
+                    case Decoder.RET, Decoder.SYS -> new int[0];
+                    case Decoder.SE_BYTE, Decoder.SNE_BYTE, Decoder.SE_REG, Decoder.SNE_REG, Decoder.SKP,
+                            Decoder.SKNP -> new int[]{next, next + 2};
+                    default -> null;
+                };
+                if (successors != null) {
+                    address = next;
+                    break;
+                }
+                if (next >= instructionStart.length || !instructionStart[next] || leader[next]) {
+                    //Falls into another block, or off the end of the decoded code
+                    successors = next < instructionStart.length && instructionStart[next] ? new int[]{next} : new int[0];
+                    address = next;
+                    break;
+                }
+                address = next;
+            }
+            addBlock(new BasicBlock(start, address, successors));
+        }
+    }
+
+    private void addBlock(BasicBlock block) {
+        for (int i = block.getStartAddress(); i < block.getEndAddress(); i++) {
+            if (blockIndex[i] < 0) blockIndex[i] = blocks.size();
+        }
+        blocks.add(block);
+    }
+
+    public boolean isCode(int address) {
+        return address >= 0 && address < code.length && code[address];
+    }
+
+    public boolean isInstructionStart(int address) {
+        return address >= 0 && address < instructionStart.length && instructionStart[address];
+    }
+
+    //Raw analysis results, for AnalysisCache
+    boolean[] getInstructionStarts() {
+        return instructionStart;
+    }
+
+    boolean[] getCodeBytes() {
+        return code;
+    }
+
+    public List<BasicBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    //The block containing address, or null if it isn't code
+    public BasicBlock blockAt(int address) {
+        if (address < 0 || address >= blockIndex.length || blockIndex[address] < 0) return null;
+        return blocks.get(blockIndex[address]);
+    }
+
+    //Every decoded instruction in address order, for the debugger's instruction view
+    public List<Instruction> getInstructions() {
+        if (instructions == null) {
+            List<Instruction> decoded = new ArrayList<>();
+            for (int address = 0; address < instructionStart.length; address++) {
+                if (!instructionStart[address]) continue;
+                Instruction instruction = new Instruction(address, ControlFlowAnalyzer.opcodeAt(memory, address));
+                if (instruction.validateInstruction()) decoded.add(instruction);
+            }
+            instructions = Collections.unmodifiableList(decoded);
+        }
+        return instructions;
+    }
+
+    //Dialect the ROM was written for, or null if the graph didn't come through AnalysisCache
+    public Platform getPlatform() {
+        return platform;
+    }
+
+    void setPlatform(Platform platform) {
+        this.platform = platform;
+    }
+
+    public static class BasicBlock {
+        private final int startAddress;
+        private final int endAddress;
+        private final int[] successors;
+
+        BasicBlock(int startAddress, int endAddress, int[] successors) {
+            this.startAddress = startAddress;
+            this.endAddress = endAddress;
+            this.successors = successors;
+        }
+
+        public int getStartAddress() {
+            return startAddress;
+        }
+
+        //Address just past the last instruction
+        public int getEndAddress() {
+            return endAddress;
+        }
+
+        public int getLength() {
+            return (endAddress - startAddress) / 2;
+        }
+
+        //Addresses control can continue at after this block
+        public int[] getSuccessors() {
+            return successors.clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(String.format("%03X-%03X ->", startAddress, endAddress - 2));
+            for (int successor : successors) builder.append(String.format(" %03X", successor));
+            return builder.toString();
+        }
+    }
+}
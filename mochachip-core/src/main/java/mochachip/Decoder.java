@@ -0,0 +1,145 @@
+package mochachip;
+
+//Predecoded dispatch table for every possible 16-bit CHIP-8 opcode
+//Built once when the class is loaded so the CPU never has to pick apart an opcode at runtime
+//OPS holds a handler id for each opcode, OPERANDS holds its operand fields packed into one int
+public final class Decoder {
+    public static final int TABLE_SIZE = 0x10000;
+
+    //Handler ids
+    public static final int INVALID = 0;
+    public static final int SYS = 1;
+    public static final int CLS = 2;
+    public static final int RET = 3;
+    public static final int JP = 4;
+    public static final int CALL = 5;
+    public static final int SE_BYTE = 6;
+    public static final int SNE_BYTE = 7;
+    public static final int SE_REG = 8;
+    public static final int LD_BYTE = 9;
+    public static final int ADD_BYTE = 10;
+    public static final int LD_REG = 11;
+    public static final int OR = 12;
+    public static final int AND = 13;
+    public static final int XOR = 14;
+    public static final int ADD_REG = 15;
+    public static final int SUB = 16;
+    public static final int SHR = 17;
+    public static final int SUBN = 18;
+    public static final int SHL = 19;
+    public static final int SNE_REG = 20;
+    public static final int LD_I = 21;
+    public static final int JP_V0 = 22;
+    public static final int RND = 23;
+    public static final int DRW = 24;
+    public static final int SKP = 25;
+    public static final int SKNP = 26;
+    public static final int LD_VX_DT = 27;
+    public static final int LD_KEY = 28;
+    public static final int LD_DT = 29;
+    public static final int LD_ST = 30;
+    public static final int ADD_I = 31;
+    public static final int LD_FONT = 32;
+    public static final int LD_BCD = 33;
+    public static final int LD_STORE = 34;
+    public static final int LD_LOAD = 35;
+    public static final int OP_COUNT = 36;
+
+    private static final String[] NAMES = {
+            "INVALID", "SYS", "CLS", "RET", "JP", "CALL", "SE Vx, byte", "SNE Vx, byte", "SE Vx, Vy",
+            "LD Vx, byte", "ADD Vx, byte", "LD Vx, Vy", "OR", "AND", "XOR", "ADD Vx, Vy", "SUB", "SHR", "SUBN",
+            "SHL", "SNE Vx, Vy", "LD I, addr", "JP V0, addr", "RND", "DRW", "SKP", "SKNP", "LD Vx, DT",
+            "LD Vx, K", "LD DT, Vx", "LD ST, Vx", "ADD I, Vx", "LD F, Vx", "LD B, Vx", "LD [I], Vx", "LD Vx, [I]"
+    };
+
+    static final byte[] OPS = new byte[TABLE_SIZE];
+    //Packed operands - x: bits 0-3, y: bits 4-7, n: bits 8-11, nn: bits 12-19, nnn: bits 20-31
+    static final int[] OPERANDS = new int[TABLE_SIZE];
+
+    static {
+        for (int opcode = 0; opcode < TABLE_SIZE; opcode++) {
+            int x = (opcode & 0x0F00) >> 8;
+            int y = (opcode & 0x00F0) >> 4;
+            int n = opcode & 0x000F;
+            int nn = opcode & 0x00FF;
+            int nnn = opcode & 0x0FFF;
+            OPS[opcode] = (byte) handlerFor(opcode >> 12, n, nn, nnn);
+            OPERANDS[opcode] = x | (y << 4) | (n << 8) | (nn << 12) | (nnn << 20);
+        }
+    }
+
+    private Decoder() {
+    }
+
+    private static int handlerFor(int family, int n, int nn, int nnn) {
+        return switch (family) {
+            case 0x0 -> nnn == 0x0E0 ? CLS : nnn == 0x0EE ? RET : SYS;
+            case 0x1 -> JP;
+            case 0x2 -> CALL;
+            case 0x3 -> SE_BYTE;
+            case 0x4 -> SNE_BYTE;
+            case 0x5 -> SE_REG;
+            case 0x6 -> LD_BYTE;
+            case 0x7 -> ADD_BYTE;
+            case 0x8 -> switch (n) {
+                case 0x0 -> LD_REG;
+                case 0x1 -> OR;
+                case 0x2 -> AND;
+                case 0x3 -> XOR;
+                case 0x4 -> ADD_REG;
+                case 0x5 -> SUB;
+                case 0x6 -> SHR;
+                case 0x7 -> SUBN;
+                case 0xE -> SHL;
+                default -> INVALID;
+            };
+            case 0x9 -> SNE_REG;
+            case 0xA -> LD_I;
+            case 0xB -> JP_V0;
+            case 0xC -> RND;
+            case 0xD -> DRW;
+            case 0xE -> nn == 0x9E ? SKP : nn == 0xA1 ? SKNP : INVALID;
+            case 0xF -> switch (nn) {
+                case 0x07 -> LD_VX_DT;
+                case 0x0A -> LD_KEY;
+                case 0x15 -> LD_DT;
+                case 0x18 -> LD_ST;
+                case 0x1E -> ADD_I;
+                case 0x29 -> LD_FONT;
+                case 0x33 -> LD_BCD;
+                case 0x55 -> LD_STORE;
+                case 0x65 -> LD_LOAD;
+                default -> INVALID;
+            };
+            default -> INVALID;
+        };
+    }
+
+    public static int handlerOf(int opcode) {
+        return OPS[opcode & 0xFFFF];
+    }
+
+    public static String nameOf(int handler) {
+        return NAMES[handler];
+    }
+
+    static int x(int operands) {
+        return operands & 0xF;
+    }
+
+    static int y(int operands) {
+        return (operands >> 4) & 0xF;
+    }
+
+    static int n(int operands) {
+        return (operands >> 8) & 0xF;
+    }
+
+    static int nn(int operands) {
+        return (operands >> 12) & 0xFF;
+    }
+
+    static int nnn(int operands) {
+        return operands >>> 20;
+    }
+}
@@ -0,0 +1,129 @@
+package mochachip;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+//One long-lived emulation thread per session. Other threads never touch the running machine directly,
+//they post commands (load, stop, pause, resume, step, speed) to a lock-free queue instead
+//Commands run on the emulation thread between frames: posting one makes CPU.start() return at the end of the
+//current frame, the queue is drained, and the machine picks up again unless it is now paused
+//While paused or with nothing loaded the thread is parked, and only the next command unparks it
+public class Emulator {
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    //Only replaced on the emulation thread, volatile so posting threads can ask it to yield
+    private volatile CPU cpu;
+
+    public Emulator() {
+        thread = new Thread(this::run, "MochaChip emulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        while (true) {
+            CPU current = cpu;
+            if (current != null) current.yieldRequested = false;
+            Runnable command;
+            while ((command = commands.poll()) != null) {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    fault(e);
+                }
+            }
+            current = cpu;
+            if (current == null || current.isPaused() || !commands.isEmpty()) {
+                //A command posted after the queue was drained leaves a permit, so this can't miss it
+                if (commands.isEmpty()) LockSupport.park(this);
+                continue;
+            }
+            try {
+                current.start();
+            } catch (RuntimeException e) {
+                fault(e);
+            }
+        }
+    }
+
+    //A faulting ROM pauses its machine instead of taking the only emulation thread down with it
+    private void fault(RuntimeException error) {
+        if (cpu != null) cpu.fault(error);
+        else System.out.println("Warning: Emulator command failed: " + error);
+    }
+
+    //Run command on the emulation thread at the next frame boundary, or straight away if the machine is paused
+    public void execute(Runnable command) {
+        commands.add(command);
+        CPU current = cpu;
+        if (current != null) current.yieldFrames();
+        LockSupport.unpark(thread);
+    }
+
+    //Hand over a machine with a ROM loaded, replacing the current one. Set it paused first to start in step mode
+    public void load(CPU machine) {
+        execute(() -> {
+            if (cpu != null) cpu.stop();
+            cpu = machine;
+        });
+    }
+
+    //Stop and drop the current machine, and wait until the emulation thread has let go of it,
+    //so the caller can reset the display and input it was using
+    public void stop() {
+        CountDownLatch stopped = new CountDownLatch(1);
+        execute(() -> {
+            try {
+                if (cpu != null) cpu.stop();
+            } finally {
+                cpu = null;
+                stopped.countDown();
+            }
+        });
+        try {
+            //Don't wait forever on a thread that something worse than a ROM fault has killed
+            while (!stopped.await(100, TimeUnit.MILLISECONDS)) {
+                if (!thread.isAlive()) {
+                    cpu = null;
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void pause() {
+        execute(() -> {
+            if (cpu != null) cpu.setPaused(true);
+        });
+    }
+
+    public void resume() {
+        execute(() -> {
+            if (cpu != null) cpu.setPaused(false);
+        });
+    }
+
+    //Run count single instructions, only while paused
+    public void step(int count) {
+        execute(() -> {
+            if (cpu == null || !cpu.isPaused()) return;
+            for (int i = 0; i < count; i++) cpu.stepInstruction();
+        });
+    }
+
+    //Takes effect at the next frame without stopping the machine
+    public void setSpeed(int cyclesPerSecond) {
+        execute(() -> {
+            if (cpu != null) cpu.setCyclesPerSecond(cyclesPerSecond);
+        });
+    }
+
+    public boolean isPaused() {
+        CPU current = cpu;
+        return current == null || current.isPaused();
+    }
+}
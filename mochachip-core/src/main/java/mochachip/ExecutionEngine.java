@@ -0,0 +1,17 @@
+package mochachip;
+
+//Selects how the CPU runs CHIP-8 code for a session
+public enum ExecutionEngine {
+    //Fetch and dispatch one instruction at a time
+    INTERPRETER,
+    //Translate basic blocks to JVM bytecode and run them as generated methods, falling back to the interpreter
+    BLOCK_JIT;
+
+    public static ExecutionEngine fromString(String name) {
+        return switch (name.toLowerCase()) {
+            case "jit", "block_jit" -> BLOCK_JIT;
+            case "interpreter" -> INTERPRETER;
+            default -> throw new IllegalArgumentException("Unknown execution engine: " + name);
+        };
+    }
+}
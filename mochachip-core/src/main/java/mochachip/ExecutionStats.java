@@ -0,0 +1,183 @@
+package mochachip;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+//Runtime counters for one CPU: instructions per opcode family, frames, timer ticks and time spent running vs sleeping
+//The counters are plain fields only ever written by the emulation thread, so counting costs an increment
+//Other threads read them without locking and may see values up to a frame old, which is fine for monitoring
+//Rates are worked out once a second on the emulation thread and published through volatile fields
+public class ExecutionStats implements ExecutionStatsMBean {
+    public static final String OBJECT_NAME = "org.mochachip:type=ExecutionStats";
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final String[] FAMILIES = new String[Decoder.OP_COUNT];
+
+    static {
+        for (int i = 0; i < Decoder.OP_COUNT; i++) FAMILIES[i] = Decoder.nameOf(i);
+    }
+
+    private final CPU cpu;
+    //Indexed by Decoder handler id. Compiled blocks count their own runs and only add them here when evicted,
+    //so the JIT pays a single increment per block
+    final long[] opcodeCounts = new long[Decoder.OP_COUNT];
+    private volatile BlockCompiler blockCompiler;
+    long frames;
+    //Frames in which the delay or sound timer was counting down
+    long timerTicks;
+    long executeNanos;
+    long sleepNanos;
+    //Frames cut short by an idle loop, and the instructions of budget they didn't need to run
+    long idleFrames;
+    long idleInstructionsSkipped;
+    private long windowStart;
+    private long windowInstructions;
+    private long windowFrames;
+    private long windowExecuteNanos;
+    private long windowSleepNanos;
+    private volatile double instructionsPerSecond;
+    private volatile double framesPerSecond;
+    private volatile double busyFraction;
+    //Set by reset() from any thread, cleared by the emulation thread at the next frame
+    private volatile boolean resetRequested;
+
+    public ExecutionStats(CPU cpu) {
+        this.cpu = cpu;
+    }
+
+    //Called when the CPU is reset with the JIT enabled, the previous compiler's blocks are counted before it goes
+    void setBlockCompiler(BlockCompiler blockCompiler) {
+        if (this.blockCompiler != null) this.blockCompiler.addCachedRuns(opcodeCounts);
+        this.blockCompiler = blockCompiler;
+    }
+
+    //Called by the emulation thread at the end of every frame
+    void endFrame(long now) {
+        frames++;
+        if (resetRequested) {
+            resetRequested = false;
+            Arrays.fill(opcodeCounts, 0);
+            if (blockCompiler != null) blockCompiler.clearRuns();
+            frames = 0;
+            timerTicks = 0;
+            idleFrames = 0;
+            idleInstructionsSkipped = 0;
+            executeNanos = 0;
+            sleepNanos = 0;
+            startWindow(now);
+            return;
+        }
+        long elapsed = now - windowStart;
+        if (elapsed < WINDOW_NANOS) return;
+        if (windowStart != 0) {
+            instructionsPerSecond = (cpu.getInstructionCount() - windowInstructions) * 1e9 / elapsed;
+            framesPerSecond = (frames - windowFrames) * 1e9 / elapsed;
+            long execute = executeNanos - windowExecuteNanos;
+            long total = execute + sleepNanos - windowSleepNanos;
+            busyFraction = total == 0 ? 0 : (double) execute / total;
+        }
+        startWindow(now);
+    }
+
+    private void startWindow(long now) {
+        windowStart = now;
+        windowInstructions = cpu.getInstructionCount();
+        windowFrames = frames;
+        windowExecuteNanos = executeNanos;
+        windowSleepNanos = sleepNanos;
+    }
+
+    //Register with the platform MBean server, replacing the stats of a previous CPU
+    public void publish() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.out.println("Warning: Could not register execution stats with JMX: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long getInstructionCount() {
+        return cpu.getInstructionCount();
+    }
+
+    @Override
+    public long getFrameCount() {
+        return frames;
+    }
+
+    @Override
+    public int getTargetInstructionsPerSecond() {
+        return cpu.getCyclesPerSecond();
+    }
+
+    @Override
+    public double getInstructionsPerSecond() {
+        return instructionsPerSecond;
+    }
+
+    @Override
+    public double getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    @Override
+    public long getTimerTicks() {
+        return timerTicks;
+    }
+
+    @Override
+    public long getDrawCalls() {
+        return getOpcodeCounts()[Decoder.DRW];
+    }
+
+    @Override
+    public long getIdleFrames() {
+        return idleFrames;
+    }
+
+    @Override
+    public long getIdleInstructionsSkipped() {
+        return idleInstructionsSkipped;
+    }
+
+    @Override
+    public long getExecuteNanos() {
+        return executeNanos;
+    }
+
+    @Override
+    public long getSleepNanos() {
+        return sleepNanos;
+    }
+
+    //Share of the last second spent running frames rather than sleeping between them
+    @Override
+    public double getBusyFraction() {
+        return busyFraction;
+    }
+
+    @Override
+    public String[] getOpcodeFamilies() {
+        return FAMILIES.clone();
+    }
+
+    @Override
+    public long[] getOpcodeCounts() {
+        long[] counts = opcodeCounts.clone();
+        BlockCompiler compiler = blockCompiler;
+        if (compiler != null) compiler.addCachedRuns(counts);
+        return counts;
+    }
+
+    //Zero the counters at the next frame boundary, the instruction count is the CPU's and isn't touched
+    @Override
+    public void reset() {
+        resetRequested = true;
+    }
+}
@@ -0,0 +1,34 @@
+package mochachip;
+
+//Management interface for ExecutionStats, shown in JConsole and other JMX clients under org.mochachip
+public interface ExecutionStatsMBean {
+    long getInstructionCount();
+
+    long getFrameCount();
+
+    int getTargetInstructionsPerSecond();
+
+    double getInstructionsPerSecond();
+
+    double getFramesPerSecond();
+
+    long getTimerTicks();
+
+    long getDrawCalls();
+
+    long getIdleFrames();
+
+    long getIdleInstructionsSkipped();
+
+    long getExecuteNanos();
+
+    long getSleepNanos();
+
+    double getBusyFraction();
+
+    String[] getOpcodeFamilies();
+
+    long[] getOpcodeCounts();
+
+    void reset();
+}
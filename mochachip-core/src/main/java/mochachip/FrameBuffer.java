@@ -0,0 +1,104 @@
+package mochachip;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//The CHIP-8 64x32 monochrome screen, kept free of any GUI toolkit so the core can run headless
+//Each row is packed into one long, with the leftmost pixel (x = 0) in the most significant bit
+//The emulation thread draws into its own rows and publishes finished frames through a lock-free triple buffer,
+//so a renderer on another thread always sees a whole frame and neither side ever waits on the other
+public class FrameBuffer {
+    public static final int WIDTH = 64;
+    public static final int HEIGHT = 32;
+    private static final int INDEX_MASK = 0x3;
+    private static final int FRESH = 0x4;
+    private final long[] rows = new long[HEIGHT];
+    private final long[][] buffers = new long[3][HEIGHT];
+    //Index of the buffer being handed over, plus FRESH if it holds a frame the reader hasn't picked up yet
+    private final AtomicInteger shared = new AtomicInteger(1);
+    //Owned by the emulation thread
+    private int backIndex = 0;
+    //Owned by the reading thread
+    private int frontIndex = 2;
+    //Set by any change during the current frame
+    private boolean changed;
+    private FrameListener frameListener;
+
+    //Notified at the end of a frame that changed the screen, e.g. so a GUI can repaint once
+    public interface FrameListener {
+        void frameReady();
+    }
+
+    //XOR one 8-pixel sprite row onto the screen at (x, y), rotating so it wraps around the right edge
+    //Returns true if any lit pixel was turned off
+    public boolean drawSpriteRow(int x, int y, int spriteByte) {
+        long sprite = Long.rotateRight((long) (spriteByte & 0xFF) << 56, x);
+        long row = rows[y];
+        rows[y] = row ^ sprite;
+        changed = true;
+        return (row & sprite) != 0;
+    }
+
+    public void setPixel(int x, int y, boolean enabled) {
+        long bit = Long.MIN_VALUE >>> x;
+        rows[y] = enabled ? rows[y] | bit : rows[y] & ~bit;
+        changed = true;
+    }
+
+    public boolean getPixelState(int x, int y) {
+        return (rows[y] & (Long.MIN_VALUE >>> x)) != 0;
+    }
+
+    public long getRow(int y) {
+        return rows[y];
+    }
+
+    public void clear() {
+        Arrays.fill(rows, 0);
+        changed = true;
+    }
+
+    //Copy the screen into a HEIGHT-long array
+    public void copyRows(long[] destination) {
+        System.arraycopy(rows, 0, destination, 0, HEIGHT);
+    }
+
+    //Overwrite the screen from a HEIGHT-long array
+    public void loadRows(long[] source) {
+        System.arraycopy(source, 0, rows, 0, HEIGHT);
+        changed = true;
+    }
+
+    public int contentHash() {
+        return Arrays.hashCode(rows);
+    }
+
+    //Called once per emulated frame, publishes the frame and notifies the listener only if something was drawn
+    public void endFrame() {
+        if (changed) {
+            changed = false;
+            System.arraycopy(rows, 0, buffers[backIndex], 0, HEIGHT);
+            backIndex = shared.getAndSet(backIndex | FRESH) & INDEX_MASK;
+            if (frameListener != null) frameListener.frameReady();
+        }
+    }
+
+    //Reader side, call from a single thread (the EDT)
+    //Returns true if a frame was published since the last call to acquireFrame
+    public boolean hasNewFrame() {
+        return (shared.get() & FRESH) != 0;
+    }
+
+    //Reader side, call from a single thread (the EDT)
+    //Returns the most recently published frame, which stays untouched by the emulation thread until the next call
+    public long[] acquireFrame() {
+        if ((shared.get() & FRESH) != 0) {
+            frontIndex = shared.getAndSet(frontIndex) & INDEX_MASK;
+        }
+        return buffers[frontIndex];
+    }
+
+    public void setFrameListener(FrameListener frameListener) {
+        this.frameListener = frameListener;
+    }
+}
@@ -0,0 +1,170 @@
+package mochachip;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+//Runs a ROM with no GUI as fast as the host allows, for CI and batch jobs on display-less machines
+//Usage: --headless <rom.ch8> [--frames=N] [--speed=N] [--engine=jit] [--replay=input.log] [--profile=out.folded]
+//                  [--no-idle-skip]
+//Idle loops are skipped unless --no-idle-skip is given
+//With --profile the hottest addresses are printed and the sampled call stacks are written for a flame graph
+//With --replay the run is deterministic: the log's seed, speed, idle skip setting and per-frame keys override the
+//options, and it runs for as many frames as were recorded unless --frames says otherwise
+public class HeadlessRunner {
+    public static final int DEFAULT_FRAMES = 600;
+    private final CPU cpu;
+    private Predicate<CPU> haltCondition = CPU::isHalted;
+
+    public HeadlessRunner(CPU cpu) {
+        this.cpu = cpu;
+    }
+
+    //Build a CPU with its own keypad and framebuffer and load a ROM into it
+    public static CPU createCPU(String romPath, int speed, ExecutionEngine executionEngine) {
+        CPU cpu = new CPU(new Input(), new FrameBuffer(), speed);
+        cpu.setExecutionEngine(executionEngine);
+        cpu.reset();
+        if (!cpu.getMemory().loadChip8File(romPath)) {
+            throw new IllegalArgumentException("Couldn't load Chip 8 ROM: " + romPath);
+        }
+        return cpu;
+    }
+
+    //Set the CPU up to reproduce a recorded session, returns the number of frames recorded
+    public long replay(InputLog log) {
+        Rom rom = cpu.getMemory().getLoadedRom();
+        if (rom != null && !rom.getHash().equals(log.getRomHash())) {
+            System.out.println("Warning: Input log was recorded with a different ROM (" + log.getRomHash() + ")");
+        }
+        cpu.setCyclesPerSecond(log.getCyclesPerSecond());
+        cpu.setIdleSkipping(log.isIdleSkipping());
+        cpu.enableDeterministicMode(log.getSeed());
+        cpu.setInputPlayback(log.play());
+        return log.getFrameCount();
+    }
+
+    //Run up to maxFrames emulated frames, stopping early if the halt condition is met
+    public Result run(long maxFrames) {
+        long startInstructions = cpu.getInstructionCount();
+        long startTime = System.nanoTime();
+        long frames = cpu.runUnthrottled(maxFrames, haltCondition);
+        long elapsed = System.nanoTime() - startTime;
+        return new Result(frames, cpu.getInstructionCount() - startInstructions, elapsed, haltCondition.test(cpu));
+    }
+
+    public void setHaltCondition(Predicate<CPU> haltCondition) {
+        this.haltCondition = haltCondition;
+    }
+
+    public CPU getCpu() {
+        return cpu;
+    }
+
+    public static class Result {
+        private final long frames;
+        private final long instructions;
+        private final long elapsedNanos;
+        private final boolean halted;
+
+        public Result(long frames, long instructions, long elapsedNanos, boolean halted) {
+            this.frames = frames;
+            this.instructions = instructions;
+            this.elapsedNanos = elapsedNanos;
+            this.halted = halted;
+        }
+
+        public long getFrames() {
+            return frames;
+        }
+
+        public long getInstructions() {
+            return instructions;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public boolean isHalted() {
+            return halted;
+        }
+
+        public double getInstructionsPerSecond() {
+            return elapsedNanos == 0 ? 0 : instructions * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Ran %d frames, %d instructions in %.3f ms (%,.0f instructions per second)%s",
+                    frames, instructions, elapsedNanos / 1_000_000.0, getInstructionsPerSecond(),
+                    halted ? ", halted" : "");
+        }
+    }
+
+    public static void main(String[] args) {
+        String romPath = null;
+        long frames = -1;
+        String replayPath = null;
+        String profilePath = null;
+        boolean idleSkipping = true;
+        int speed = 500;
+        ExecutionEngine executionEngine = ExecutionEngine.INTERPRETER;
+        for (String arg : args) {
+            if (arg.startsWith("--frames=")) frames = Long.parseLong(arg.substring("--frames=".length()));
+            else if (arg.startsWith("--speed=")) speed = Integer.parseInt(arg.substring("--speed=".length()));
+            else if (arg.startsWith("--engine=")) {
+                executionEngine = ExecutionEngine.fromString(arg.substring("--engine=".length()));
+            } else if (arg.startsWith("--replay=")) {
+                replayPath = arg.substring("--replay=".length());
+            } else if (arg.equals("--no-idle-skip")) {
+                idleSkipping = false;
+            } else if (arg.startsWith("--profile=")) {
+                profilePath = arg.substring("--profile=".length());
+            } else if (!arg.startsWith("--")) romPath = arg;
+        }
+        if (romPath == null) {
+            System.out.println("Usage: --headless <rom.ch8> [--frames=N] [--speed=N] [--engine=jit] "
+                    + "[--replay=input.log] [--profile=out.folded] [--no-idle-skip]");
+            System.exit(1);
+        }
+
+        CPU cpu = createCPU(romPath, speed, executionEngine);
+        cpu.setIdleSkipping(idleSkipping);
+        HeadlessRunner runner = new HeadlessRunner(cpu);
+        if (replayPath != null) {
+            try {
+                long recordedFrames = runner.replay(InputLog.read(Path.of(replayPath)));
+                if (frames < 0) frames = recordedFrames;
+                //A replay runs to the end of the log even if the program halts earlier
+                runner.setHaltCondition(c -> false);
+            } catch (IOException e) {
+                System.out.println("Couldn't read input log: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        Profiler profiler = null;
+        if (profilePath != null) {
+            profiler = new Profiler();
+            cpu.setProfiler(profiler);
+        }
+        Result result = runner.run(frames < 0 ? DEFAULT_FRAMES : frames);
+        System.out.println(result);
+        if (profiler != null) {
+            System.out.println("Hottest addresses:");
+            for (Profiler.HotSpot spot : profiler.getHotAddresses(10)) System.out.println("  " + spot);
+            try {
+                profiler.writeFolded(Path.of(profilePath), cpu.getMemory(), cpu.getMemory().getLoadedRom().getName());
+            } catch (IOException e) {
+                System.out.println("Couldn't write profile: " + e.getMessage());
+            }
+        }
+        if (replayPath != null) {
+            //Compare these between runs to check a replay still ends in the same place
+            System.out.printf("Final PC %03X, screen hash %08X, RAM hash %08X%n",
+                    cpu.getProgramCounter().getCurrentAddress(), cpu.getFrameBuffer().contentHash(),
+                    Arrays.hashCode(cpu.getMemory().getMemoryArray()));
+        }
+    }
+}
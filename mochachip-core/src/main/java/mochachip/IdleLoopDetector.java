@@ -0,0 +1,144 @@
+package mochachip;
+
+import java.util.Arrays;
+
+//Spots busy-wait loops, e.g. Fx07 / 3x00 / 1nnn waiting on the delay timer or Ex9E / 1nnn polling a key,
+//so the frame loop can skip whole trips round the loop instead of running them one instruction at a time
+//A backward jump from B to H is looked at if the body H..B passes a static check: no draws, stores, calls, timer
+//writes or RNG, and no more than MAX_LOOP_LENGTH instructions. The machine state is then snapshotted at the jump.
+//Timers only tick between frames, so if the next jump from B finds exactly the same state, the program is going
+//round in circles and every later trip would too, each running the same number of instructions. Skipping only
+//whole trips leaves the PC and the leftover cycle credit exactly where running them would have, and the rest of
+//the frame runs normally. Deterministic runs latch the keypad once per frame, so keys are fixed as well.
+//Otherwise the live keypad is part of the snapshot, and a key pressed during the skipped trips is seen once the
+//frame loop reaches the next instruction that reads it
+//Both engines see the same back-edges at the same instruction, so skipping doesn't break engine-independent replays
+class IdleLoopDetector {
+    //Longest loop body looked at, in instructions
+    static final int MAX_LOOP_LENGTH = 16;
+    //A candidate that comes round this many times in a frame without settling is a counting loop, not an idle one
+    static final int MAX_MISSES = 8;
+    private static final int NONE = -1;
+    private final CPU cpu;
+    private boolean armed;
+    private int loopStart = NONE;
+    private int loopEnd = NONE;
+    private int misses;
+    //Last back-edge ruled out this frame, so an ordinary loop doesn't get looked at on every trip
+    private int rejectedStart = NONE;
+    private int rejectedEnd = NONE;
+    private final byte[] snapshotRegisters = new byte[16];
+    private final int[] snapshotStack = new int[16];
+    private int snapshotStackPointer;
+    private int snapshotIndex;
+    private int snapshotTimers;
+    private int snapshotKeys;
+    private long snapshotRandom;
+    private long snapshotMemoryWrites;
+    private long snapshotScreenWrites;
+    private long snapshotInstructionCount;
+
+    IdleLoopDetector(CPU cpu) {
+        this.cpu = cpu;
+    }
+
+    //Called at the start of every frame, so detection never depends on what happened in earlier frames
+    void reset() {
+        armed = false;
+        rejectedStart = NONE;
+        rejectedEnd = NONE;
+    }
+
+    //Called after a backward jump from branch to head. Once the loop is known to spin until the frame ends, returns
+    //the instructions one trip round it takes, otherwise 0
+    int backEdge(int head, int branch) {
+        if (head == rejectedStart && branch == rejectedEnd) return 0;
+        if (armed && head == loopStart && branch == loopEnd) {
+            if (matchesSnapshot()) {
+                //The caller skips all the whole trips left in the frame, so a fresh snapshot is only needed next frame
+                armed = false;
+                return (int) (cpu.instructionCount - snapshotInstructionCount);
+            }
+            if (++misses >= MAX_MISSES) {
+                reject(head, branch);
+                return 0;
+            }
+        } else {
+            if (!isIdleCandidate(cpu.memory.getMemoryArray(), head, branch)) {
+                reject(head, branch);
+                return 0;
+            }
+            loopStart = head;
+            loopEnd = branch;
+            misses = 0;
+            armed = true;
+        }
+        takeSnapshot();
+        return 0;
+    }
+
+    private void reject(int head, int branch) {
+        rejectedStart = head;
+        rejectedEnd = branch;
+        armed = false;
+    }
+
+    //Everything a trip through the loop, or any code it strayed into, could have changed
+    private void takeSnapshot() {
+        Registers registers = cpu.registers;
+        Stack stack = cpu.stack;
+        System.arraycopy(registers.variableRegisters, 0, snapshotRegisters, 0, 16);
+        snapshotIndex = registers.indexRegister;
+        snapshotTimers = (registers.delayTimer & 0xFF) << 8 | (registers.soundTimer & 0xFF);
+        snapshotKeys = cpu.getKeyMask();
+        snapshotStackPointer = stack.stackPointer;
+        System.arraycopy(stack.stack, 0, snapshotStack, 0, stack.stackPointer + 1);
+        snapshotRandom = cpu.random.getState();
+        snapshotMemoryWrites = cpu.memory.getWriteCount();
+        snapshotScreenWrites = cpu.screenWrites;
+        snapshotInstructionCount = cpu.instructionCount;
+    }
+
+    private boolean matchesSnapshot() {
+        Registers registers = cpu.registers;
+        Stack stack = cpu.stack;
+        return registers.indexRegister == snapshotIndex
+                && Arrays.equals(registers.variableRegisters, snapshotRegisters)
+                && ((registers.delayTimer & 0xFF) << 8 | (registers.soundTimer & 0xFF)) == snapshotTimers
+                && cpu.getKeyMask() == snapshotKeys
+                && stack.stackPointer == snapshotStackPointer
+                && Arrays.equals(stack.stack, 0, stack.stackPointer + 1, snapshotStack, 0, stack.stackPointer + 1)
+                && cpu.random.getState() == snapshotRandom
+                && cpu.memory.getWriteCount() == snapshotMemoryWrites
+                && cpu.screenWrites == snapshotScreenWrites;
+    }
+
+    //Static check of the loop body from head to the backward jump at branch
+    //Jumps inside the body must stay inside it, skips may leave it since that ends the loop
+    //Reads live RAM like both engines do, a load-time ControlFlowGraph isn't built for headless runs and goes stale
+    //once a program rewrites its own code
+    static boolean isIdleCandidate(byte[] ram, int head, int branch) {
+        if (head < 0 || branch > ram.length - 2 || branch < head || (branch - head) / 2 >= MAX_LOOP_LENGTH) {
+            return false;
+        }
+        for (int address = head; address <= branch; address += 2) {
+            int opcode = ControlFlowAnalyzer.opcodeAt(ram, address);
+            switch (Decoder.handlerOf(opcode)) {
+                case Decoder.JP -> {
+                    int target = opcode & 0xFFF;
+                    if (target < head || target > branch) return false;
+                }
+                case Decoder.SE_BYTE, Decoder.SNE_BYTE, Decoder.SE_REG, Decoder.SNE_REG, Decoder.SKP, Decoder.SKNP,
+                        Decoder.LD_BYTE, Decoder.ADD_BYTE, Decoder.LD_REG, Decoder.OR, Decoder.AND, Decoder.XOR,
+                        Decoder.ADD_REG, Decoder.SUB, Decoder.SHR, Decoder.SUBN, Decoder.SHL, Decoder.LD_I,
+                        Decoder.ADD_I, Decoder.LD_VX_DT, Decoder.LD_FONT, Decoder.LD_LOAD -> {
+                }
+                //Draws, stores, calls, timer writes, RNG and key waits all change state outside the registers
+                default -> {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
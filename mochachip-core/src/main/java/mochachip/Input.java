@@ -0,0 +1,70 @@
+package mochachip;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+//CHIP-8 hex keypad state, fed by KeyboardInput in the GUI
+//Written by the AWT thread and read by the emulation thread, so the whole keypad is one atomic mask
+public class Input {
+    //Where KeyboardInput puts keys that aren't on the keypad, never part of the mask
+    public static final int NO_KEY = 16;
+    //Bit n set while key n is held
+    private final AtomicInteger keyMask = new AtomicInteger();
+    private volatile int lastKeyPressed = NO_KEY;
+    //Thread parked in awaitKeyPress, unparked by the next key press
+    private volatile Thread waiter;
+
+    public Input() {
+        reset();
+    }
+
+    public void reset() {
+        keyMask.set(0);
+        lastKeyPressed = NO_KEY;
+    }
+
+    public void pressKey(int key) {
+        if (key < 0 || key >= NO_KEY) return;
+        lastKeyPressed = key;
+        keyMask.getAndUpdate(mask -> mask | 1 << key);
+        Thread thread = waiter;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    public void releaseKey(int key) {
+        if (key < 0 || key >= NO_KEY) return;
+        keyMask.getAndUpdate(mask -> mask & ~(1 << key));
+    }
+
+    //Only the low nibble counts, like the keypad lines on the original hardware
+    public boolean isKeyPressed(int key) {
+        return (keyMask.get() & 1 << (key & 0xF)) != 0;
+    }
+
+    //Park the calling thread until a key is pressed. Returns straight away if one is already held
+    //Also returns when the thread is unparked for another reason, so callers re-check what they were waiting for
+    public void awaitKeyPress() {
+        waiter = Thread.currentThread();
+        //The waiter is published before the mask is read, so a press in between still unparks us
+        if (keyMask.get() == 0) LockSupport.park(this);
+        waiter = null;
+    }
+
+    public int getLastKeyPressed() {
+        return lastKeyPressed;
+    }
+
+    public void resetLastKeyPressed() {
+        this.lastKeyPressed = NO_KEY;
+    }
+
+    //Bit n set while key n is held
+    public int getKeyMask() {
+        return keyMask.get();
+    }
+
+    public boolean isAnyKeyPressed() {
+        return keyMask.get() != 0;
+    }
+
+}
@@ -0,0 +1,137 @@
+package mochachip;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+//Recorded keypad input for deterministic replay - one 16-bit key mask per frame, run-length encoded
+//A header carries everything else a replay needs to match the recording: RNG seed, speed, whether idle loops were
+//skipped and the ROM's SHA-1
+//Masks only change when a key goes up or down, so an hour of play is usually a few kilobytes
+public class InputLog {
+    private static final int MAGIC = 0x4D43_3849; //"MC8I"
+    //Version 1 logs have no idle skip flag, they were recorded with the default of skipping
+    private static final int VERSION = 2;
+
+    private final long seed;
+    private final int cyclesPerSecond;
+    private final boolean idleSkipping;
+    private final String romHash;
+    //Runs of identical masks
+    private char[] runMasks = new char[64];
+    private int[] runLengths = new int[64];
+    private int runCount;
+    private long frameCount;
+
+    public InputLog(long seed, int cyclesPerSecond, boolean idleSkipping, String romHash) {
+        this.seed = seed;
+        this.cyclesPerSecond = cyclesPerSecond;
+        this.idleSkipping = idleSkipping;
+        this.romHash = romHash;
+    }
+
+    //Append one frame's key mask
+    public void record(int keyMask) {
+        char mask = (char) keyMask;
+        if (runCount > 0 && runMasks[runCount - 1] == mask && runLengths[runCount - 1] < Integer.MAX_VALUE) {
+            runLengths[runCount - 1]++;
+        } else {
+            if (runCount == runMasks.length) {
+                runMasks = Arrays.copyOf(runMasks, runCount * 2);
+                runLengths = Arrays.copyOf(runLengths, runCount * 2);
+            }
+            runMasks[runCount] = mask;
+            runLengths[runCount] = 1;
+            runCount++;
+        }
+        frameCount++;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getCyclesPerSecond() {
+        return cyclesPerSecond;
+    }
+
+    public boolean isIdleSkipping() {
+        return idleSkipping;
+    }
+
+    public String getRomHash() {
+        return romHash;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public Player play() {
+        return new Player();
+    }
+
+    public static InputLog read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a MochaChip input log: " + path);
+            int version = in.readInt();
+            if (version != VERSION && version != 1) throw new IOException("Unsupported input log version " + version);
+            long seed = in.readLong();
+            int cyclesPerSecond = in.readInt();
+            boolean idleSkipping = version == 1 || in.readBoolean();
+            InputLog log = new InputLog(seed, cyclesPerSecond, idleSkipping, in.readUTF());
+            int runs = in.readInt();
+            log.runMasks = new char[Math.max(runs, 1)];
+            log.runLengths = new int[Math.max(runs, 1)];
+            for (int i = 0; i < runs; i++) {
+                log.runMasks[i] = in.readChar();
+                log.runLengths[i] = in.readInt();
+                log.frameCount += log.runLengths[i];
+            }
+            log.runCount = runs;
+            return log;
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "input", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+            out.writeInt(cyclesPerSecond);
+            out.writeBoolean(idleSkipping);
+            out.writeUTF(romHash);
+            out.writeInt(runCount);
+            for (int i = 0; i < runCount; i++) {
+                out.writeChar(runMasks[i]);
+                out.writeInt(runLengths[i]);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //Reads the masks back one frame at a time, no keys are held once the log runs out
+    public class Player {
+        private int run;
+        private int remaining = runCount > 0 ? runLengths[0] : 0;
+
+        public int nextFrame() {
+            while (remaining == 0) {
+                if (run + 1 >= runCount) return 0;
+                run++;
+                remaining = runLengths[run];
+            }
+            remaining--;
+            return runMasks[run];
+        }
+
+        public boolean isFinished() {
+            return remaining == 0 && run + 1 >= runCount;
+        }
+    }
+}
@@ -1,10 +1,5 @@
 package mochachip;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-
 public class Instruction {
     private final int byteCode;
     private int address;
@@ -13,7 +8,6 @@ public class Instruction {
     private int nibble2;
     private int nibble3;
     private boolean valid;
-    private boolean breakpoint = false;
     private String description;
 
     public Instruction(int address, int byteCode) {
@@ -22,6 +16,12 @@ public class Instruction {
         parse();
     }
 
+    //An instruction validated earlier, read back from AnalysisCache
+    Instruction(int address, int byteCode, String description) {
+        this(address, byteCode);
+        this.description = description;
+    }
+
     private void parse() {
         this.opcode = (byteCode & 0xF000) >> 12;
         this.nibble1 = (byteCode & 0x0F00) >> 8;
@@ -65,14 +65,6 @@ public class Instruction {
         return description;
     }
 
-    public void setBreakpoint(boolean val) {
-        this.breakpoint = val;
-    }
-
-    public boolean isBreakpoint() {
-        return breakpoint;
-    }
-
     public boolean isValid() {
         return valid;
     }
@@ -220,39 +212,4 @@ public class Instruction {
         return false; // If no valid instruction matched
     }
 
-    //Get all instructions from the program as a list
-    public static List<Instruction> preFetchInstructions(CPU cpu) {
-        List<Instruction> instructionList = new ArrayList<>();
-        Set<Integer> visitedAddresses = new HashSet<>();
-
-        while (cpu.programCounter.currentAddress < 4094) {
-            Instruction instruction = cpu.fetchInstruction();
-
-            //Skip over any addresses that were already jumped to
-            if (visitedAddresses.contains(instruction.getAddress())) continue;
-            else visitedAddresses.add(instruction.getAddress());
-
-            //If this is a valid instruction, add it to the list
-            if (!instructionList.contains(instruction) && instruction.validateInstruction()) {
-                instructionList.add(instruction);
-            }
-
-            //If instruction is jump or call, jump to the address at nnn and roll back the PC
-            //Return to address on stack if return instruction
-            if (instruction.getByteCode() == 1) {
-                cpu.programCounter.currentAddress = instruction.getNNN();
-                if (cpu.programCounter.getCurrentAddress() > 1) cpu.programCounter.decrementPC();
-            } else if (instruction.getByteCode() == 2) {
-                cpu.stack.push(cpu.programCounter.currentAddress);
-                cpu.programCounter.currentAddress = instruction.getNNN();
-                if (cpu.programCounter.getCurrentAddress() > 1) cpu.programCounter.decrementPC();
-            } else if (instruction.getByteCode() == 0x00EE) {
-                if (!cpu.stack.isEmpty()) cpu.programCounter.currentAddress = cpu.stack.pop();
-            }
-        }
-        //Reset PC to where it belongs
-        cpu.programCounter.currentAddress = Memory.PROGRAM_START_ADDRESS;
-        return instructionList;
-    }
-
 }
@@ -0,0 +1,12 @@
+package mochachip;
+
+//Lets a front end follow the machine without the core depending on it, e.g. the Swing debugger
+//Callbacks run on the emulation thread, so implementations hand off to their own thread for anything slow
+//Only rare events are reported, and with no listener set the CPU skips them with a null check
+public interface MachineListener {
+    //The frame loop stopped on a breakpoint or a pausing watchpoint, the machine is now paused at address
+    void breakpointHit(int address);
+
+    //The program crashed the machine, e.g. a return with an empty stack. It is paused at address
+    void machineFault(int address, RuntimeException error);
+}
@@ -0,0 +1,52 @@
+package mochachip;
+
+//A cheap copy of the registers, PC and stack for monitors like the debugger
+//Filled by CPU.captureState - keep one instance around and refill it instead of allocating
+public class MachineState {
+    private final byte[] variableRegisters = new byte[16];
+    private final int[] stack = new int[16];
+    private int indexRegister;
+    private int delayTimer;
+    private int soundTimer;
+    private int programCounter;
+    private int stackPointer;
+
+    void capture(Registers registers, ProgramCounter programCounter, Stack stack) {
+        System.arraycopy(registers.variableRegisters, 0, variableRegisters, 0, variableRegisters.length);
+        System.arraycopy(stack.stack, 0, this.stack, 0, this.stack.length);
+        indexRegister = registers.indexRegister;
+        delayTimer = registers.delayTimer & 0xFF;
+        soundTimer = registers.soundTimer & 0xFF;
+        this.programCounter = programCounter.currentAddress;
+        stackPointer = stack.stackPointer;
+    }
+
+    public int getVariableRegister(int index) {
+        return variableRegisters[index] & 0xFF;
+    }
+
+    //Returns the address at a stack slot, or -1 if the slot is above the stack pointer
+    public int getStackEntry(int index) {
+        return index <= stackPointer ? stack[index] : -1;
+    }
+
+    public int getIndexRegister() {
+        return indexRegister;
+    }
+
+    public int getDelayTimer() {
+        return delayTimer;
+    }
+
+    public int getSoundTimer() {
+        return soundTimer;
+    }
+
+    public int getProgramCounter() {
+        return programCounter;
+    }
+
+    public int getStackPointer() {
+        return stackPointer;
+    }
+}
@@ -0,0 +1,236 @@
+package mochachip;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class Memory {
+    //Chip-8 has direct access to up to 4KB of RAM
+    public static final int MEMORY_SIZE = 4096;
+    public static final int FONT_DATA_START_ADDRESS = 0x50;
+    public static final int PROGRAM_START_ADDRESS = 0x200;
+
+    //Barrier flags - an access to a flagged address takes the slow path
+    static final byte BARRIER_CODE = 0x1;
+    static final byte BARRIER_WATCH_WRITE = 0x2;
+    static final byte BARRIER_WATCH_READ = 0x4;
+
+    private byte[] memory;
+    private final byte[] barrier = new byte[MEMORY_SIZE];
+    //One bit per 16-byte line, set by writes so a viewer only has to re-read the lines that changed
+    public static final int LINE_SIZE = 16;
+    public static final int DIRTY_WORDS = MEMORY_SIZE / LINE_SIZE / 64;
+    private final AtomicLongArray dirtyLines = new AtomicLongArray(DIRTY_WORDS);
+    //Lines written since the last publishDirtyLines, owned by the emulation thread so stores never touch the atomics
+    private final long[] pendingLines = new long[DIRTY_WORDS];
+    private BlockCompiler blockCompiler;
+    private Watchpoints watchpoints;
+    private Rom loadedRom;
+    //Reads only look at the barrier while a read watchpoint is set
+    private boolean watchingReads;
+    //Bumped by every CPU write, so the idle loop detector can tell memory hasn't changed
+    private long writeCount;
+    final int firstAvailableAddress = 0x200;
+    final int fontDataAddress = 0x50;
+    private final byte[] fontData = {
+            (byte) 0xF0, (byte) 0x90, (byte) 0x90, (byte) 0x90, (byte) 0xF0, // 0
+            (byte) 0x20, (byte) 0x60, (byte) 0x20, (byte) 0x20, (byte) 0x70, // 1
+            (byte) 0xF0, (byte) 0x10, (byte) 0xF0, (byte) 0x80, (byte) 0xF0, // 2
+            (byte) 0xF0, (byte) 0x10, (byte) 0xF0, (byte) 0x10, (byte) 0xF0, // 3
+            (byte) 0x90, (byte) 0x90, (byte) 0xF0, (byte) 0x10, (byte) 0x10, // 4
+            (byte) 0xF0, (byte) 0x80, (byte) 0xF0, (byte) 0x10, (byte) 0xF0, // 5
+            (byte) 0xF0, (byte) 0x80, (byte) 0xF0, (byte) 0x90, (byte) 0xF0, // 6
+            (byte) 0xF0, (byte) 0x10, (byte) 0x20, (byte) 0x40, (byte) 0x40, // 7
+            (byte) 0xF0, (byte) 0x90, (byte) 0xF0, (byte) 0x90, (byte) 0xF0, // 8
+            (byte) 0xF0, (byte) 0x90, (byte) 0xF0, (byte) 0x10, (byte) 0xF0, // 9
+            (byte) 0xF0, (byte) 0x90, (byte) 0xF0, (byte) 0x90, (byte) 0x90, // A
+            (byte) 0xE0, (byte) 0x90, (byte) 0xE0, (byte) 0x90, (byte) 0xE0, // B
+            (byte) 0xF0, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0xF0, // C
+            (byte) 0xE0, (byte) 0x90, (byte) 0x90, (byte) 0x90, (byte) 0xE0, // D
+            (byte) 0xF0, (byte) 0x80, (byte) 0xF0, (byte) 0x80, (byte) 0xF0, // E
+            (byte) 0xF0, (byte) 0x80, (byte) 0xF0, (byte) 0x80, (byte) 0x80  // F
+    };
+
+    public Memory() {
+        reset();
+    }
+
+    public void initialize() {
+        reserveMemoryForInterpreter();
+        loadFontToMemory();
+    }
+
+    public void reset() {
+        memory = new byte[MEMORY_SIZE];
+        if (blockCompiler != null) blockCompiler.flush();
+        initialize();
+        markAllDirty();
+    }
+
+    public void write(int address, byte value) {
+        byte val = (byte) (value & 0xFF);
+        if (address >= 0 && address < MEMORY_SIZE) {
+            if (barrier[address] != 0) barrierWrite(address, val);
+            memory[address] = val;
+            markDirty(address);
+            writeCount++;
+        } else {
+            throw new IllegalArgumentException("Error with request to write memory at " + address
+                    + " with value " + value + ". Memory address out of bounds.");
+        }
+    }
+
+    private void barrierWrite(int address, byte value) {
+        byte flags = barrier[address];
+        if ((flags & BARRIER_WATCH_WRITE) != 0) {
+            watchpoints.hit(Watchpoints.WRITE, address, memory[address], value);
+        }
+        //Compiled code covering this byte is about to go stale
+        if ((flags & BARRIER_CODE) != 0 && memory[address] != value) blockCompiler.invalidate(address);
+    }
+
+    //Plain field only, the line is handed to the viewer by publishDirtyLines at the end of the frame
+    private void markDirty(int address) {
+        int line = address / LINE_SIZE;
+        long bit = 1L << line;
+        if ((pendingLines[line >> 6] & bit) == 0) pendingLines[line >> 6] |= bit;
+    }
+
+    //Called by the CPU after every frame or single step, one atomic update per word that has new dirty lines
+    void publishDirtyLines() {
+        for (int i = 0; i < DIRTY_WORDS; i++) {
+            long pending = pendingLines[i];
+            if (pending == 0) continue;
+            dirtyLines.getAndAccumulate(i, pending, (a, b) -> a | b);
+            pendingLines[i] = 0;
+        }
+    }
+
+    private void markAllDirty() {
+        for (int i = 0; i < DIRTY_WORDS; i++) dirtyLines.set(i, -1L);
+    }
+
+    //Overwrite all of memory from a save state, bypassing watchpoints
+    //Only bytes that actually differ evict compiled code and mark their line dirty
+    void restore(byte[] source, int offset) {
+        int address = 0;
+        while (address < MEMORY_SIZE) {
+            //Skip over runs of equal bytes with a vectorized compare
+            int skip = Arrays.mismatch(memory, address, MEMORY_SIZE, source, offset + address, offset + MEMORY_SIZE);
+            if (skip < 0) break;
+            address += skip;
+            byte value = source[offset + address];
+            if ((barrier[address] & BARRIER_CODE) != 0) blockCompiler.invalidate(address);
+            memory[address] = value;
+            markDirty(address);
+            address++;
+        }
+        publishDirtyLines();
+    }
+
+    //Copy the dirty line bits into destination (DIRTY_WORDS longs) and clear them
+    public void takeDirtyLines(long[] destination) {
+        for (int i = 0; i < DIRTY_WORDS; i++) destination[i] = dirtyLines.getAndSet(i, 0);
+    }
+
+    //Stores since power-on, so a caller can tell whether anything in RAM changed between two points
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    void setBarrier(int address, byte flag) {
+        barrier[address] |= flag;
+    }
+
+    void clearBarrier(int address, byte flag) {
+        barrier[address] &= (byte) ~flag;
+    }
+
+    void setWatchpoints(Watchpoints watchpoints) {
+        this.watchpoints = watchpoints;
+    }
+
+    void setWatchingReads(boolean watchingReads) {
+        this.watchingReads = watchingReads;
+    }
+
+    void setBlockCompiler(BlockCompiler blockCompiler) {
+        this.blockCompiler = blockCompiler;
+    }
+
+    public byte read(int address) {
+        if (address >= 0 && address < memory.length) {
+            if (watchingReads && (barrier[address] & BARRIER_WATCH_READ) != 0) {
+                watchpoints.hit(Watchpoints.READ, address, memory[address], memory[address]);
+            }
+            return memory[address];
+        } else {
+            throw new IllegalArgumentException("Error with request to read memory at " + address
+                    + ". Memory address out of bounds.");
+        }
+    }
+
+    private void reserveMemoryForInterpreter() {
+        for (int i = 0x0; i < firstAvailableAddress; i++) {
+            write(i, (byte) 0x5);
+        }
+    }
+
+    private void loadFontToMemory() {
+        for (int i = 0; i < fontData.length; i++) {
+            write(FONT_DATA_START_ADDRESS + i, fontData[i]);
+        }
+    }
+
+    public boolean loadChip8File(String filePath) {
+        try {
+            return loadRom(Rom.read(Path.of(filePath)));
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Couldn't load Chip 8 ROM: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean loadRom(Rom rom) {
+        if (!rom.fitsInMemory()) {
+            System.out.println("Couldn't load Chip 8 ROM: " + rom.getName() + " is " + rom.getSize()
+                    + " bytes, only " + Rom.MAX_SIZE + " fit in memory");
+            return false;
+        }
+        reset();
+        loadProgramDataToMemory(rom.getData());
+        loadedRom = rom;
+        return true;
+    }
+
+    //The ROM currently in memory, or null
+    public Rom getLoadedRom() {
+        return loadedRom;
+    }
+
+    public void loadProgramDataToMemory(byte[] data) {
+        System.arraycopy(data, 0, memory, PROGRAM_START_ADDRESS, data.length);
+        markAllDirty();
+    }
+
+    public void printMemoryMap() {
+        for (int i = 0; i < 4096; i++) {
+            if (i % 10 == 0) {
+                System.out.printf("%nAddress 0x%03X: ", i);
+            }
+            System.out.printf("0x%02X ", memory[i] & 0xFF);
+        }
+    }
+
+    public byte[] getMemoryArray(){
+        return memory;
+    }
+
+    //Return an address in memory corresponding to a hex digit
+    public int getAddressOfDigit(int digit) {
+        return FONT_DATA_START_ADDRESS + (digit * 5);
+    }
+
+}
\ No newline at end of file
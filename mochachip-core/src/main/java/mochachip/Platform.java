@@ -0,0 +1,69 @@
+package mochachip;
+
+//CHIP-8 dialect a ROM was most likely written for, guessed from the opcodes it uses
+//Only the original instruction set is emulated, the others are detected so a library can label them
+public enum Platform {
+    CHIP8("CHIP-8"),
+    SCHIP("SUPER-CHIP"),
+    XO_CHIP("XO-CHIP");
+
+    private final String displayName;
+
+    Platform(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    //Looks at every reachable instruction, plus the word right after straight-line code where analysis stopped,
+    //since that is where an opcode the decoder doesn't know shows up
+    public static Platform detect(Rom rom, ControlFlowGraph graph) {
+        //Only XO-CHIP has more than 4 KB of address space
+        if (!rom.fitsInMemory()) return XO_CHIP;
+        byte[] data = rom.getData();
+        boolean superChip = false;
+        int end = Memory.PROGRAM_START_ADDRESS + data.length - 1;
+        for (int address = Memory.PROGRAM_START_ADDRESS; address < end; address++) {
+            int offset = address - Memory.PROGRAM_START_ADDRESS;
+            boolean reached = graph.isInstructionStart(address)
+                    || (!graph.isCode(address) && graph.isInstructionStart(address - 2)
+                    && fallsThrough(opcodeAt(data, offset - 2)));
+            if (!reached) continue;
+            int opcode = opcodeAt(data, offset);
+            if (isXoChipOpcode(opcode)) return XO_CHIP;
+            superChip |= isSuperChipOpcode(opcode);
+        }
+        return superChip ? SCHIP : CHIP8;
+    }
+
+    private static int opcodeAt(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    private static boolean fallsThrough(int opcode) {
+        int handler = Decoder.OPS[opcode];
+        return handler != Decoder.JP && handler != Decoder.JP_V0 && handler != Decoder.RET;
+    }
+
+    //00Dn scroll up, 5xy2/5xy3 register range save/load, F000 long I, Fn01 plane select, F002 audio, Fx3A pitch
+    private static boolean isXoChipOpcode(int opcode) {
+        int family = opcode >> 12;
+        int nn = opcode & 0xFF;
+        return (opcode & 0xFFF0) == 0x00D0
+                || (family == 0x5 && ((opcode & 0xF) == 0x2 || (opcode & 0xF) == 0x3))
+                || opcode == 0xF000
+                || (family == 0xF && (nn == 0x01 || opcode == 0xF002 || nn == 0x3A));
+    }
+
+    //00Cn scroll down, 00FB-00FF scroll/exit/resolution, Dxy0 16x16 sprite, Fx30 big font, Fx75/Fx85 flags
+    private static boolean isSuperChipOpcode(int opcode) {
+        int family = opcode >> 12;
+        int nn = opcode & 0xFF;
+        return (opcode & 0xFFF0) == 0x00C0
+                || (opcode >= 0x00FB && opcode <= 0x00FF)
+                || (family == 0xD && (opcode & 0xF) == 0)
+                || (family == 0xF && (nn == 0x30 || nn == 0x75 || nn == 0x85));
+    }
+}
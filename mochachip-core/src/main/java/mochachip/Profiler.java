@@ -0,0 +1,226 @@
+package mochachip;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+//Hot-spot profiler: an exact execution count for every address, plus call stacks sampled every few instructions
+//Only the emulation thread records, other threads read the counts without locking and may see them a frame late
+//Reset from another thread through Emulator.execute so it never races the recording side
+public class Profiler {
+    //Prime, so the sampling doesn't lock onto loops whose length divides it
+    public static final int DEFAULT_SAMPLE_INTERVAL = 97;
+    private static final int INITIAL_SAMPLE_SLOTS = 256;
+    private final int sampleInterval;
+    private final int[] hits = new int[Memory.MEMORY_SIZE];
+    private long total;
+    private int sampleCountdown;
+    //Open addressing table of distinct sampled stacks, keyed by a hash of PC and return addresses
+    private long[] sampleKeys = new long[INITIAL_SAMPLE_SLOTS];
+    private int[][] sampleStacks = new int[INITIAL_SAMPLE_SLOTS][];
+    private int[] sampleCounts = new int[INITIAL_SAMPLE_SLOTS];
+    private int sampleSlotsUsed;
+
+    public Profiler() {
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    public Profiler(int sampleInterval) {
+        if (sampleInterval < 1) throw new IllegalArgumentException("Sample interval must be at least 1");
+        this.sampleInterval = sampleInterval;
+        this.sampleCountdown = sampleInterval;
+    }
+
+    //Count executed instructions laid out from address, either one interpreted instruction or a compiled block
+    //A sample is taken of the instruction about to run next at pc, whose call stack is the current one
+    void record(int address, int executed, Stack stack, int pc) {
+        for (int i = 0; i < executed; i++) hits[(address + i * 2) & 0xFFF]++;
+        total += executed;
+        sampleCountdown -= executed;
+        if (sampleCountdown <= 0) {
+            sampleCountdown += sampleInterval;
+            sample(pc & 0xFFF, stack);
+        }
+    }
+
+    //Stacks are stored as the return addresses, oldest first, followed by the sampled PC
+    private void sample(int pc, Stack stack) {
+        int depth = stack.stackPointer + 1;
+        long key = pc;
+        for (int i = 0; i < depth; i++) key = key * 0x100000001B3L + stack.stack[i];
+        key = key * 0x100000001B3L + depth;
+        int mask = sampleKeys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (sampleStacks[slot] != null) {
+            if (sampleKeys[slot] == key) {
+                sampleCounts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int[] frames = Arrays.copyOf(stack.stack, depth + 1);
+        frames[depth] = pc;
+        sampleKeys[slot] = key;
+        sampleStacks[slot] = frames;
+        sampleCounts[slot] = 1;
+        if (++sampleSlotsUsed * 2 > sampleKeys.length) growSamples();
+    }
+
+    private void growSamples() {
+        long[] oldKeys = sampleKeys;
+        int[][] oldStacks = sampleStacks;
+        int[] oldCounts = sampleCounts;
+        sampleKeys = new long[oldKeys.length * 2];
+        sampleStacks = new int[oldKeys.length * 2][];
+        sampleCounts = new int[oldKeys.length * 2];
+        int mask = sampleKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStacks[i] == null) continue;
+            int slot = (int) (oldKeys[i] ^ (oldKeys[i] >>> 32)) & mask;
+            while (sampleStacks[slot] != null) slot = (slot + 1) & mask;
+            sampleKeys[slot] = oldKeys[i];
+            sampleStacks[slot] = oldStacks[i];
+            sampleCounts[slot] = oldCounts[i];
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(hits, 0);
+        total = 0;
+        sampleCountdown = sampleInterval;
+        sampleKeys = new long[INITIAL_SAMPLE_SLOTS];
+        sampleStacks = new int[INITIAL_SAMPLE_SLOTS][];
+        sampleCounts = new int[INITIAL_SAMPLE_SLOTS];
+        sampleSlotsUsed = 0;
+    }
+
+    public int getHits(int address) {
+        return hits[address];
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    //The n most executed addresses, most executed first
+    public List<HotSpot> getHotAddresses(int n) {
+        List<HotSpot> spots = new ArrayList<>();
+        for (int address = 0; address < hits.length; address++) {
+            int count = hits[address];
+            if (count > 0) spots.add(new HotSpot(address, address + 2, count));
+        }
+        return top(spots, n);
+    }
+
+    //The n basic blocks of graph that ran the most instructions, most first
+    public List<HotSpot> getHotBlocks(ControlFlowGraph graph, int n) {
+        List<HotSpot> spots = new ArrayList<>();
+        for (ControlFlowGraph.BasicBlock block : graph.getBlocks()) {
+            long count = 0;
+            for (int address = block.getStartAddress(); address < block.getEndAddress(); address += 2) {
+                count += hits[address];
+            }
+            if (count > 0) spots.add(new HotSpot(block.getStartAddress(), block.getEndAddress(), count));
+        }
+        return top(spots, n);
+    }
+
+    private static List<HotSpot> top(List<HotSpot> spots, int n) {
+        spots.sort(Comparator.comparingLong(HotSpot::getCount).reversed());
+        return spots.size() > n ? new ArrayList<>(spots.subList(0, n)) : spots;
+    }
+
+    //Copy of the sampled stacks and the RAM their frames are named from, so the file can be written from any thread
+    //Only call between frames from an Emulator command, it's a few array copies and no formatting
+    public FoldedStacks snapshotFolded(Memory memory, String rootName) {
+        return new FoldedStacks(sampleStacks.clone(), sampleCounts.clone(), memory.getMemoryArray().clone(), rootName);
+    }
+
+    //Snapshot and write in one go, for callers already between frames such as the headless runner
+    public void writeFolded(Path path, Memory memory, String rootName) throws IOException {
+        snapshotFolded(memory, rootName).write(path);
+    }
+
+    //Name a frame after the target of the CALL just before its return address
+    private static String subroutineName(byte[] ram, int returnAddress) {
+        int callAddress = returnAddress - 2;
+        if (callAddress >= 0 && callAddress < ram.length - 1) {
+            int opcode = ControlFlowAnalyzer.opcodeAt(ram, callAddress);
+            if (Decoder.handlerOf(opcode) == Decoder.CALL) return String.format("sub_%03X", opcode & 0xFFF);
+        }
+        return String.format("ret_%03X", returnAddress);
+    }
+
+    //Sampled stacks in the folded format read by flamegraph.pl and speedscope, one line per stack:
+    //root;sub_2A0;sub_31C;324 57
+    //Each return address on the CHIP-8 stack becomes a frame named after the subroutine its CALL went to,
+    //the last frame is the sampled instruction itself
+    public static class FoldedStacks {
+        //Stack arrays are never changed once sampled, so sharing them with the profiler is safe
+        private final int[][] stacks;
+        private final int[] counts;
+        private final byte[] ram;
+        private final String rootName;
+
+        private FoldedStacks(int[][] stacks, int[] counts, byte[] ram, String rootName) {
+            this.stacks = stacks;
+            this.counts = counts;
+            this.ram = ram;
+            this.rootName = rootName;
+        }
+
+        public void write(Path path) throws IOException {
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < stacks.length; i++) {
+                    int[] frames = stacks[i];
+                    if (frames == null) continue;
+                    StringBuilder line = new StringBuilder(rootName);
+                    for (int depth = 0; depth < frames.length - 1; depth++) {
+                        line.append(';').append(subroutineName(ram, frames[depth]));
+                    }
+                    line.append(';').append(String.format("%03X", frames[frames.length - 1]));
+                    line.append(' ').append(counts[i]);
+                    writer.write(line.toString());
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    //A single address, or a basic block covering [startAddress, endAddress)
+    public static class HotSpot {
+        private final int startAddress;
+        private final int endAddress;
+        private final long count;
+
+        public HotSpot(int startAddress, int endAddress, long count) {
+            this.startAddress = startAddress;
+            this.endAddress = endAddress;
+            this.count = count;
+        }
+
+        public int getStartAddress() {
+            return startAddress;
+        }
+
+        public int getEndAddress() {
+            return endAddress;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return endAddress - startAddress <= 2 ? String.format("%03X  %,d", startAddress, count)
+                    : String.format("%03X-%03X  %,d", startAddress, endAddress - 2, count);
+        }
+    }
+}
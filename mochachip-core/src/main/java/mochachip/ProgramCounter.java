@@ -1,11 +1,8 @@
 package mochachip;
 
-import mochachip.gui.DebugGUI;
-
 public class ProgramCounter {
     //Used to point at current instruction in memory
     int currentAddress;
-    private DebugGUI debugGUI;
 
     public ProgramCounter() {
         currentAddress = 0x200;
@@ -14,12 +11,10 @@ public class ProgramCounter {
 
     public void incrementPC() {
         currentAddress += 2;
-        debugGUI.updateRegister(DebugGUI.RegisterType.PC, currentAddress);
     }
 
     public void decrementPC(){
         currentAddress -= 2;
-        debugGUI.updateRegister(DebugGUI.RegisterType.PC, currentAddress);
     }
 
 
@@ -31,8 +26,4 @@ public class ProgramCounter {
         return currentAddress;
     }
 
-    public void setDebugGUI(DebugGUI debugGUI) {
-        this.debugGUI = debugGUI;
-    }
-
 }
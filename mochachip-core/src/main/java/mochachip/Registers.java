@@ -1,7 +1,5 @@
 package mochachip;
 
-import mochachip.gui.DebugGUI;
-
 public class Registers {
 
     //One 16-bit index register "I", points to locations in memory
@@ -14,7 +12,6 @@ public class Registers {
     int indexRegister;
     Stack stack;
     byte[] variableRegisters;
-    private DebugGUI debugGUI;
 
     public Registers() {
         delayTimer = 0;
@@ -28,12 +25,9 @@ public class Registers {
         //Timers always decrementing if not zero
         if ((delayTimer & 0xFF) > 0) {
             delayTimer--;
-            debugGUI.updateRegister(DebugGUI.RegisterType.DT, delayTimer);
         }
         if ((soundTimer & 0xFF) > 0) {
             soundTimer--;
-            debugGUI.updateRegister(DebugGUI.RegisterType.ST, soundTimer);
-
         }
     }
 
@@ -63,24 +57,17 @@ public class Registers {
 
     public void setVariableRegister(int index, int value) {
         variableRegisters[index] = (byte) (value & 0xFF);
-        debugGUI.updateRegister(index, value);
     }
 
     public void setIndexRegister(int value) {
         indexRegister = (value & 0xFFF);
-        debugGUI.updateRegister(DebugGUI.RegisterType.I, value);
     }
 
     public void setDelayTimer(int value) {
         delayTimer = (byte) (value & 0xFF);
-        debugGUI.updateRegister(DebugGUI.RegisterType.DT, value);
     }
 
     public void setSoundTimer(int value) {
         soundTimer = (byte) (value & 0xFF);
     }
-
-    public void setDebugGUI(DebugGUI debugGUI) {
-        this.debugGUI = debugGUI;
-    }
 }
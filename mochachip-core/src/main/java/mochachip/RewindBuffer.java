@@ -0,0 +1,224 @@
+package mochachip;
+
+import java.util.Arrays;
+
+//Per-frame history of the machine for rewinding, kept under a fixed memory cap
+//Each frame is stored as the XOR of its save state against the last keyframe, run-length encoded so the
+//unchanged bulk of RAM costs a couple of bytes. A full keyframe is taken every keyframeInterval frames
+//Records are appended to one circular byte arena, and when it fills up the oldest keyframe is evicted together
+//with the deltas that depend on it. Nothing is allocated per frame
+public class RewindBuffer {
+    public static final int DEFAULT_CAPACITY = 8 * 1024 * 1024;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+    //Runs of this many unchanged bytes end a literal run
+    private static final int MIN_ZERO_RUN = 4;
+    //Worst case encoding: every literal run is split by short equal runs, each costing a few varint bytes
+    private static final int MAX_RECORD_SIZE = SaveState.SIZE * 2 + 16;
+
+    private final byte[] arena;
+    private final int keyframeInterval;
+    //Frame records, a ring indexed from oldest (head) to newest
+    private final int[] recordStart;
+    private final int[] recordLength;
+    private final boolean[] recordIsKeyframe;
+    private int head;
+    private int count;
+    private int writePosition;
+    private int framesSinceKeyframe;
+
+    private final SaveState state = new SaveState();
+    //Decoded copy of the keyframe the newest deltas are based on
+    private final byte[] keyframe = new byte[SaveState.SIZE];
+    private final byte[] zeros = new byte[SaveState.SIZE];
+    private final byte[] encoded = new byte[MAX_RECORD_SIZE];
+
+    public RewindBuffer() {
+        this(DEFAULT_CAPACITY, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public RewindBuffer(int capacityBytes, int keyframeInterval) {
+        if (capacityBytes < MAX_RECORD_SIZE * 2) {
+            throw new IllegalArgumentException("Rewind buffer needs at least " + MAX_RECORD_SIZE * 2 + " bytes");
+        }
+        if (keyframeInterval < 1) throw new IllegalArgumentException("Keyframe interval must be at least 1");
+        this.arena = new byte[capacityBytes];
+        this.keyframeInterval = keyframeInterval;
+        //Even a record of a few bytes per frame can't outgrow this many slots
+        int maxFrames = capacityBytes / 8;
+        recordStart = new int[maxFrames];
+        recordLength = new int[maxFrames];
+        recordIsKeyframe = new boolean[maxFrames];
+    }
+
+    //Record the current frame, call from the emulation thread between frames
+    public void capture(CPU cpu) {
+        cpu.saveState(state);
+        byte[] data = state.getData();
+        boolean isKeyframe = count == 0 || framesSinceKeyframe >= keyframeInterval;
+        if (isKeyframe || !append(encode(data, keyframe), false)) {
+            //Either it's time for a keyframe, or making room evicted the keyframe this delta was based on
+            append(encode(data, zeros), true);
+            System.arraycopy(data, 0, keyframe, 0, SaveState.SIZE);
+            framesSinceKeyframe = 0;
+        }
+        framesSinceKeyframe++;
+    }
+
+    //Step the machine back one frame, dropping that frame from the buffer
+    //Returns false once there is nothing left to rewind to
+    public boolean rewind(CPU cpu) {
+        if (count == 0) return false;
+        int newest = index(count - 1);
+        if (recordIsKeyframe[newest]) {
+            decode(newest, zeros, state.getData());
+        } else {
+            decode(newest, keyframe, state.getData());
+        }
+        cpu.loadState(state);
+        count--;
+        writePosition = recordStart[newest];
+        if (recordIsKeyframe[newest]) {
+            //The deltas still in the buffer belong to the previous keyframe
+            reloadKeyframe();
+        } else {
+            framesSinceKeyframe--;
+        }
+        return true;
+    }
+
+    public int getFrameCount() {
+        return count;
+    }
+
+    //Bytes used by stored records, not counting the arena's unused tail
+    public int getUsedBytes() {
+        int used = 0;
+        for (int i = 0; i < count; i++) used += recordLength[index(i)];
+        return used;
+    }
+
+    public void clear() {
+        count = 0;
+        head = 0;
+        writePosition = 0;
+        framesSinceKeyframe = 0;
+    }
+
+    private int index(int offset) {
+        return (head + offset) % recordStart.length;
+    }
+
+    //Returns false without storing anything if a delta would be left without its keyframe
+    private boolean append(int length, boolean isKeyframe) {
+        if (count == recordStart.length) evictOldest();
+        int start = writePosition;
+        if (start + length > arena.length) {
+            //Whatever the last pass left past writePosition is the oldest data. A pass can wrap earlier than the
+            //one before it, so drop all of it now or it would still be listed once this pass writes over it
+            while (count > 0 && recordStart[head] >= writePosition) evictOldest();
+            start = 0;
+        }
+        //Within a pass records are laid out in age order, so the oldest one is always next in the way
+        while (count > 0 && overlaps(recordStart[head], recordLength[head], start, length)) evictOldest();
+        if (count == 0 && !isKeyframe) return false;
+        System.arraycopy(encoded, 0, arena, start, length);
+        int slot = index(count);
+        recordStart[slot] = start;
+        recordLength[slot] = length;
+        recordIsKeyframe[slot] = isKeyframe;
+        count++;
+        writePosition = start + length;
+        return true;
+    }
+
+    private static boolean overlaps(int start, int length, int otherStart, int otherLength) {
+        return start < otherStart + otherLength && otherStart < start + length;
+    }
+
+    //Drop the oldest keyframe and every delta based on it
+    private void evictOldest() {
+        do {
+            head = index(1);
+            count--;
+        } while (count > 0 && !recordIsKeyframe[head]);
+        if (count == 0) {
+            head = 0;
+            framesSinceKeyframe = 0;
+        }
+    }
+
+    //Find the newest remaining keyframe and decode it as the base for the deltas after it
+    private void reloadKeyframe() {
+        framesSinceKeyframe = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            int slot = index(i);
+            framesSinceKeyframe++;
+            if (recordIsKeyframe[slot]) {
+                decode(slot, zeros, keyframe);
+                return;
+            }
+        }
+        framesSinceKeyframe = 0;
+    }
+
+    //Encode data XOR base into encoded as (equal run length, literal length, literal XOR bytes) triples,
+    //with lengths as varints. Returns the encoded length
+    private int encode(byte[] data, byte[] base) {
+        int out = 0;
+        int position = 0;
+        while (position < SaveState.SIZE) {
+            int mismatch = Arrays.mismatch(data, position, SaveState.SIZE, base, position, SaveState.SIZE);
+            int equalRun = mismatch < 0 ? SaveState.SIZE - position : mismatch;
+            position += equalRun;
+            int literalStart = position;
+            //A literal run continues through short equal gaps, which would cost more to encode as runs
+            int equalGap = 0;
+            while (position < SaveState.SIZE && equalGap < MIN_ZERO_RUN) {
+                equalGap = data[position] == base[position] ? equalGap + 1 : 0;
+                position++;
+            }
+            if (equalGap == MIN_ZERO_RUN) position -= MIN_ZERO_RUN;
+            else position -= equalGap;
+            int literalLength = position - literalStart;
+            out = writeVarint(equalRun, out);
+            out = writeVarint(literalLength, out);
+            for (int i = literalStart; i < position; i++) encoded[out++] = (byte) (data[i] ^ base[i]);
+        }
+        return out;
+    }
+
+    private void decode(int slot, byte[] base, byte[] destination) {
+        System.arraycopy(base, 0, destination, 0, SaveState.SIZE);
+        int in = recordStart[slot];
+        int end = in + recordLength[slot];
+        int position = 0;
+        while (in < end) {
+            int equalRun = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = arena[in++];
+                equalRun |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int literalLength = 0;
+            shift = 0;
+            do {
+                b = arena[in++];
+                literalLength |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            position += equalRun;
+            for (int i = 0; i < literalLength; i++, position++) destination[position] ^= arena[in++];
+        }
+    }
+
+    private int writeVarint(int value, int out) {
+        while (value >= 0x80) {
+            encoded[out++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        encoded[out++] = (byte) value;
+        return out;
+    }
+}
@@ -0,0 +1,83 @@
+package mochachip;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+//A ROM image read from disk, along with the SHA-1 of its contents
+//The hash identifies a ROM regardless of its file name, and matches the hashes used by community ROM databases
+public class Rom {
+    //Largest program that fits between the start address and the end of memory
+    public static final int MAX_SIZE = Memory.MEMORY_SIZE - Memory.PROGRAM_START_ADDRESS;
+    //Files at least this big are memory mapped instead of read through a heap buffer
+    private static final long MAP_THRESHOLD = 64 * 1024;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final String name;
+    private final byte[] data;
+    private final String hash;
+
+    public Rom(String name, byte[] data) {
+        this.name = name;
+        this.data = data;
+        this.hash = sha1(data);
+    }
+
+    public static Rom read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("File too large: " + path);
+            byte[] data = new byte[(int) size];
+            if (size >= MAP_THRESHOLD) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                mapped.get(data);
+            } else {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) throw new IOException("Unexpected end of file: " + path);
+                }
+            }
+            return new Rom(path.getFileName().toString(), data);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getSize() {
+        return data.length;
+    }
+
+    //Lowercase hex SHA-1 of the ROM contents
+    public String getHash() {
+        return hash;
+    }
+
+    public boolean fitsInMemory() {
+        return data.length <= MAX_SIZE;
+    }
+
+    static String sha1(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(data);
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package mochachip;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+//Index of every ROM under a set of library folders, including ROMs inside zip archives
+//Scanning walks the folders on a fork-join pool, and only hashes and analyzes files whose size or modification
+//time changed since the last scan - everything else is carried over from the index file
+//Searching runs over the in-memory entries, so it never touches the disk
+public class RomLibrary {
+    private static final int MAGIC = 0x4D43_4C49; //"MCLI"
+    private static final int VERSION = 1;
+    private static final String[] ROM_EXTENSIONS = {".ch8", ".c8", ".sc8", ".xo8", ".8o"};
+    //Separates a zip archive's path from the entry inside it
+    private static final String ZIP_SEPARATOR = "!/";
+
+    private final Path indexFile;
+    private final List<Path> roots = new ArrayList<>();
+    //Sorted by name, replaced as a whole after each scan so readers always see a consistent list
+    private volatile List<Entry> entries = List.of();
+
+    public RomLibrary(Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    //~/.mochachip/library.idx
+    public static RomLibrary getDefault() {
+        return new RomLibrary(Path.of(System.getProperty("user.home"), ".mochachip", "library.idx"));
+    }
+
+    public synchronized List<Path> getRoots() {
+        return new ArrayList<>(roots);
+    }
+
+    public synchronized void addRoot(Path root) {
+        Path normalized = root.toAbsolutePath().normalize();
+        if (!roots.contains(normalized)) roots.add(normalized);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    //Case-insensitive match on file name, hash prefix or platform name
+    public List<Entry> search(String query) {
+        String key = query.trim().toLowerCase(Locale.ROOT);
+        List<Entry> snapshot = entries;
+        if (key.isEmpty()) return snapshot;
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : snapshot) {
+            if (entry.nameKey.contains(key) || entry.hash.startsWith(key)
+                    || entry.platform.getDisplayName().toLowerCase(Locale.ROOT).equals(key)) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+
+    //Rescan every root, reusing index entries for unchanged files, and save the index
+    public void scan() throws IOException {
+        Map<String, List<Entry>> known = new HashMap<>();
+        for (Entry entry : entries) {
+            known.computeIfAbsent(entry.container, c -> new ArrayList<>()).add(entry);
+        }
+        Map<String, Entry> found = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            for (Path root : getRoots()) {
+                if (Files.isDirectory(root)) pool.invoke(new DirectoryScan(root, known, found));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        List<Entry> scanned = new ArrayList<>(found.values());
+        scanned.sort(Comparator.comparing((Entry entry) -> entry.nameKey).thenComparing(entry -> entry.location));
+        entries = Collections.unmodifiableList(scanned);
+        save();
+    }
+
+    //Lists one directory, forking a task for each subdirectory and each ROM or zip file in it
+    private static class DirectoryScan extends RecursiveAction {
+        private final Path directory;
+        private final Map<String, List<Entry>> known;
+        private final Map<String, Entry> found;
+
+        DirectoryScan(Path directory, Map<String, List<Entry>> known, Map<String, Entry> found) {
+            this.directory = directory;
+            this.known = known;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> tasks = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (Path child : children) {
+                    BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class);
+                    if (attributes.isDirectory()) {
+                        tasks.add(new DirectoryScan(child, known, found));
+                    } else if (isRomFile(child) || isZipFile(child)) {
+                        tasks.add(new FileScan(child, attributes, known, found));
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Warning: Could not scan " + directory + ": " + e.getMessage());
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    private static class FileScan extends RecursiveAction {
+        private final Path file;
+        private final BasicFileAttributes attributes;
+        private final Map<String, List<Entry>> known;
+        private final Map<String, Entry> found;
+
+        FileScan(Path file, BasicFileAttributes attributes, Map<String, List<Entry>> known, Map<String, Entry> found) {
+            this.file = file;
+            this.attributes = attributes;
+            this.known = known;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            String container = file.toString();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            List<Entry> previous = known.get(container);
+            //An unchanged file or archive keeps all of its old entries without being read
+            if (previous != null && previous.get(0).lastModified == lastModified
+                    && previous.get(0).containerSize == attributes.size()) {
+                for (Entry entry : previous) found.put(entry.location, entry);
+                return;
+            }
+            try {
+                if (isZipFile(file)) {
+                    scanZip(container, lastModified, attributes.size());
+                } else {
+                    Rom rom = Rom.read(file);
+                    Entry entry = Entry.analyze(rom, container, container, lastModified, attributes.size());
+                    found.put(entry.location, entry);
+                }
+            } catch (IOException e) {
+                System.out.println("Warning: Could not index " + file + ": " + e.getMessage());
+            }
+        }
+
+        private void scanZip(String container, long lastModified, long containerSize) throws IOException {
+            try (ZipFile zip = new ZipFile(file.toFile())) {
+                Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+                while (zipEntries.hasMoreElements()) {
+                    ZipEntry zipEntry = zipEntries.nextElement();
+                    if (zipEntry.isDirectory() || !isRomName(zipEntry.getName())) continue;
+                    byte[] data;
+                    try (InputStream in = zip.getInputStream(zipEntry)) {
+                        data = in.readAllBytes();
+                    }
+                    String name = zipEntry.getName().substring(zipEntry.getName().lastIndexOf('/') + 1);
+                    Entry entry = Entry.analyze(new Rom(name, data), container + ZIP_SEPARATOR + zipEntry.getName(),
+                            container, lastModified, containerSize);
+                    found.put(entry.location, entry);
+                }
+            }
+        }
+    }
+
+    private static boolean isRomFile(Path path) {
+        return isRomName(path.getFileName().toString());
+    }
+
+    private static boolean isRomName(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (String extension : ROM_EXTENSIONS) {
+            if (lower.endsWith(extension)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isZipFile(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".zip");
+    }
+
+    //Returns false if there was no index yet, or it couldn't be read and the library starts empty
+    public boolean load() {
+        if (!Files.isRegularFile(indexFile)) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.out.println("Warning: Ignoring library index with an unknown format: " + indexFile);
+                return false;
+            }
+            //Every root and entry takes at least a byte, so a count past the file size is corrupt
+            long limit = Files.size(indexFile);
+            List<Path> loadedRoots = new ArrayList<>();
+            int rootCount = readCount(in, limit);
+            for (int i = 0; i < rootCount; i++) loadedRoots.add(Path.of(in.readUTF()));
+            int count = readCount(in, limit);
+            List<Entry> loaded = new ArrayList<>(count);
+            Platform[] platforms = Platform.values();
+            for (int i = 0; i < count; i++) {
+                String location = in.readUTF();
+                String container = in.readUTF();
+                long lastModified = in.readLong();
+                long containerSize = in.readLong();
+                String hash = in.readUTF();
+                int size = in.readInt();
+                long opcodeMask = in.readLong();
+                int platform = in.readUnsignedByte();
+                if (platform >= platforms.length) throw new IllegalArgumentException("Unknown platform " + platform);
+                loaded.add(new Entry(location, container, lastModified, containerSize, hash, size, opcodeMask,
+                        platforms[platform]));
+            }
+            synchronized (this) {
+                roots.clear();
+                roots.addAll(loadedRoots);
+            }
+            entries = Collections.unmodifiableList(loaded);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Warning: Ignoring unreadable library index " + indexFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static int readCount(DataInputStream in, long limit) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > limit) throw new IllegalArgumentException("Bad count " + count);
+        return count;
+    }
+
+    //Written to a temporary file and moved into place so an interrupted save keeps the old index
+    public void save() throws IOException {
+        Files.createDirectories(indexFile.getParent());
+        Path temporary = Files.createTempFile(indexFile.getParent(), "library", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            List<Path> savedRoots = getRoots();
+            out.writeInt(savedRoots.size());
+            for (Path root : savedRoots) out.writeUTF(root.toString());
+            List<Entry> snapshot = entries;
+            out.writeInt(snapshot.size());
+            for (Entry entry : snapshot) {
+                out.writeUTF(entry.location);
+                out.writeUTF(entry.container);
+                out.writeLong(entry.lastModified);
+                out.writeLong(entry.containerSize);
+                out.writeUTF(entry.hash);
+                out.writeInt(entry.size);
+                out.writeLong(entry.opcodeMask);
+                out.writeByte(entry.platform.ordinal());
+            }
+        }
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static class Entry {
+        private final String location;
+        //The file this entry was read from - the ROM itself, or the zip archive holding it
+        private final String container;
+        private final long lastModified;
+        private final long containerSize;
+        private final String hash;
+        private final int size;
+        //Bit n is set if Decoder handler n appears in the reachable code
+        private final long opcodeMask;
+        private final Platform platform;
+        private final String name;
+        private final String nameKey;
+
+        Entry(String location, String container, long lastModified, long containerSize, String hash, int size,
+              long opcodeMask, Platform platform) {
+            this.location = location;
+            this.container = container;
+            this.lastModified = lastModified;
+            this.containerSize = containerSize;
+            this.hash = hash;
+            this.size = size;
+            this.opcodeMask = opcodeMask;
+            this.platform = platform;
+            int nameStart = Math.max(location.lastIndexOf('/'), location.lastIndexOf(File.separatorChar)) + 1;
+            this.name = location.substring(nameStart);
+            this.nameKey = name.toLowerCase(Locale.ROOT);
+        }
+
+        static Entry analyze(Rom rom, String location, String container, long lastModified, long containerSize) {
+            long opcodeMask = 0;
+            Platform platform = Platform.XO_CHIP;
+            if (rom.fitsInMemory()) {
+                Memory memory = new Memory();
+                memory.loadRom(rom);
+                ControlFlowGraph graph = ControlFlowAnalyzer.analyze(memory);
+                byte[] ram = memory.getMemoryArray();
+                for (int address = 0; address < ram.length - 1; address++) {
+                    if (graph.isInstructionStart(address)) {
+                        opcodeMask |= 1L << Decoder.OPS[ControlFlowAnalyzer.opcodeAt(ram, address)];
+                    }
+                }
+                platform = Platform.detect(rom, graph);
+            }
+            return new Entry(location, container, lastModified, containerSize, rom.getHash(), rom.getSize(),
+                    opcodeMask, platform);
+        }
+
+        //Read the ROM back from disk, out of its zip archive if it is in one
+        public Rom load() throws IOException {
+            int separator = location.indexOf(ZIP_SEPARATOR);
+            if (separator < 0) return Rom.read(Path.of(location));
+            try (ZipFile zip = new ZipFile(location.substring(0, separator))) {
+                ZipEntry zipEntry = zip.getEntry(location.substring(separator + ZIP_SEPARATOR.length()));
+                if (zipEntry == null) throw new FileNotFoundException(location);
+                try (InputStream in = zip.getInputStream(zipEntry)) {
+                    return new Rom(name, in.readAllBytes());
+                }
+            }
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getOpcodeMask() {
+            return opcodeMask;
+        }
+
+        public boolean usesOpcode(int handler) {
+            return (opcodeMask & (1L << handler)) != 0;
+        }
+
+        public Platform getPlatform() {
+            return platform;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s, %d bytes, %s)", name, platform.getDisplayName(), size, hash);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package mochachip;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+//Snapshot of the whole machine in a fixed binary layout: RAM, registers, PC, stack, timers, screen,
+//key wait, RNG and frame timing state
+//Every field sits at a fixed offset in one byte array, so capturing or restoring is a handful of bulk copies
+//and a state can be written to disk as-is. Keep one instance around and reuse it for per-frame snapshots
+public class SaveState {
+    public static final int MAGIC = 0x5338_434D; //"MC8S" little-endian
+    public static final int VERSION = 1;
+
+    //Layout, little-endian
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int RAM_OFFSET = 8;
+    private static final int V_OFFSET = RAM_OFFSET + Memory.MEMORY_SIZE;
+    private static final int I_OFFSET = V_OFFSET + 16;
+    private static final int PC_OFFSET = I_OFFSET + 4;
+    private static final int SP_OFFSET = PC_OFFSET + 4;
+    private static final int DT_OFFSET = SP_OFFSET + 4;
+    private static final int ST_OFFSET = DT_OFFSET + 1;
+    private static final int KEY_WAIT_OFFSET = ST_OFFSET + 1;
+    private static final int KEY_REGISTER_OFFSET = KEY_WAIT_OFFSET + 1;
+    private static final int STACK_OFFSET = KEY_REGISTER_OFFSET + 1;
+    private static final int SCREEN_OFFSET = STACK_OFFSET + 16 * 4;
+    private static final int RNG_OFFSET = SCREEN_OFFSET + FrameBuffer.HEIGHT * 8;
+    private static final int CYCLE_CREDIT_OFFSET = RNG_OFFSET + 8;
+    private static final int INSTRUCTION_COUNT_OFFSET = CYCLE_CREDIT_OFFSET + 8;
+    private static final int HALTED_OFFSET = INSTRUCTION_COUNT_OFFSET + 8;
+    public static final int SIZE = HALTED_OFFSET + 8;
+
+    private final byte[] data;
+    private final ByteBuffer buffer;
+    private final long[] rows = new long[FrameBuffer.HEIGHT];
+
+    public SaveState() {
+        this(new byte[SIZE]);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+    }
+
+    private SaveState(byte[] data) {
+        this.data = data;
+        this.buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    //Wrap raw bytes, e.g. read from disk, checking they hold a state this version understands
+    public static SaveState fromBytes(byte[] data) {
+        if (data.length != SIZE) {
+            throw new IllegalArgumentException("Save state is " + data.length + " bytes, expected " + SIZE);
+        }
+        SaveState state = new SaveState(data.clone());
+        if (state.buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IllegalArgumentException("Not a MochaChip save state");
+        }
+        if (state.buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IllegalArgumentException("Unsupported save state version " + state.buffer.getInt(VERSION_OFFSET));
+        }
+        state.validate();
+        return state;
+    }
+
+    //restore copies fields straight into the machine, so anything the CPU would index with is checked here
+    private void validate() {
+        int pc = buffer.getInt(PC_OFFSET);
+        if (pc < 0 || pc >= Memory.MEMORY_SIZE) throw invalid("program counter", pc);
+        int index = buffer.getInt(I_OFFSET);
+        if (index < 0 || index >= Memory.MEMORY_SIZE) throw invalid("index register", index);
+        //-1 is an empty stack
+        int stackPointer = buffer.getInt(SP_OFFSET);
+        if (stackPointer < -1 || stackPointer >= 16) throw invalid("stack pointer", stackPointer);
+        for (int i = 0; i <= stackPointer; i++) {
+            int address = buffer.getInt(STACK_OFFSET + i * 4);
+            if (address < 0 || address >= Memory.MEMORY_SIZE) throw invalid("return address", address);
+        }
+        //-1 once a key wait is over, only a pending wait needs a real register
+        int waitingRegister = data[KEY_REGISTER_OFFSET];
+        if (waitingRegister < (data[KEY_WAIT_OFFSET] != 0 ? 0 : -1) || waitingRegister >= 16) {
+            throw invalid("key wait register", waitingRegister);
+        }
+        if (buffer.getLong(RNG_OFFSET) == 0) throw new IllegalArgumentException("Save state has a zero RNG state");
+    }
+
+    private static IllegalArgumentException invalid(String field, int value) {
+        return new IllegalArgumentException(String.format("Save state has an invalid %s 0x%X", field, value));
+    }
+
+    public static SaveState read(Path path) throws IOException {
+        return fromBytes(Files.readAllBytes(path));
+    }
+
+    //Written to a temporary file and moved into place so a failed save keeps the previous state
+    public void write(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = Files.createTempFile(path.toAbsolutePath().getParent(), "state", ".tmp");
+        Files.write(temporary, data);
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //The raw layout, shared with the caller - copy it if it has to outlive the next capture
+    public byte[] getData() {
+        return data;
+    }
+
+    //Emulation thread only, or while emulation is stopped
+    void capture(CPU cpu) {
+        System.arraycopy(cpu.memory.getMemoryArray(), 0, data, RAM_OFFSET, Memory.MEMORY_SIZE);
+        System.arraycopy(cpu.registers.variableRegisters, 0, data, V_OFFSET, 16);
+        buffer.putInt(I_OFFSET, cpu.registers.indexRegister);
+        buffer.putInt(PC_OFFSET, cpu.programCounter.currentAddress);
+        buffer.putInt(SP_OFFSET, cpu.stack.stackPointer);
+        data[DT_OFFSET] = cpu.registers.delayTimer;
+        data[ST_OFFSET] = cpu.registers.soundTimer;
+        data[KEY_WAIT_OFFSET] = (byte) (cpu.waitingForKeyPress ? 1 : 0);
+        data[KEY_REGISTER_OFFSET] = (byte) cpu.waitingRegister;
+        for (int i = 0; i < 16; i++) buffer.putInt(STACK_OFFSET + i * 4, cpu.stack.stack[i]);
+        cpu.frameBuffer.copyRows(rows);
+        for (int y = 0; y < FrameBuffer.HEIGHT; y++) buffer.putLong(SCREEN_OFFSET + y * 8, rows[y]);
+        buffer.putLong(RNG_OFFSET, cpu.random.getState());
+        buffer.putLong(CYCLE_CREDIT_OFFSET, cpu.cycleCredit);
+        buffer.putLong(INSTRUCTION_COUNT_OFFSET, cpu.instructionCount);
+        data[HALTED_OFFSET] = (byte) (cpu.halted ? 1 : 0);
+    }
+
+    //Emulation thread only, or while emulation is stopped
+    void restore(CPU cpu) {
+        cpu.memory.restore(data, RAM_OFFSET);
+        System.arraycopy(data, V_OFFSET, cpu.registers.variableRegisters, 0, 16);
+        cpu.registers.indexRegister = buffer.getInt(I_OFFSET);
+        cpu.programCounter.currentAddress = buffer.getInt(PC_OFFSET);
+        cpu.stack.stackPointer = buffer.getInt(SP_OFFSET);
+        cpu.registers.delayTimer = data[DT_OFFSET];
+        cpu.registers.soundTimer = data[ST_OFFSET];
+        cpu.waitingForKeyPress = data[KEY_WAIT_OFFSET] != 0;
+        cpu.waitingRegister = data[KEY_REGISTER_OFFSET];
+        for (int i = 0; i < 16; i++) cpu.stack.stack[i] = buffer.getInt(STACK_OFFSET + i * 4);
+        for (int y = 0; y < FrameBuffer.HEIGHT; y++) rows[y] = buffer.getLong(SCREEN_OFFSET + y * 8);
+        cpu.frameBuffer.loadRows(rows);
+        cpu.random.setState(buffer.getLong(RNG_OFFSET));
+        cpu.cycleCredit = buffer.getLong(CYCLE_CREDIT_OFFSET);
+        cpu.instructionCount = buffer.getLong(INSTRUCTION_COUNT_OFFSET);
+        cpu.halted = data[HALTED_OFFSET] != 0;
+    }
+}
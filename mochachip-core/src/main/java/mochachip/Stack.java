@@ -1,12 +1,9 @@
 package mochachip;
 
-import mochachip.gui.DebugGUI;
-
 public class Stack {
     //Stores return addresses when calling subroutines
     int[] stack;
     int stackPointer;
-    private DebugGUI debugGUI;
 
     public Stack() {
         //mochachip.Stack has a size of 16 bytes
@@ -21,7 +18,6 @@ public class Stack {
         if (stackPointer + 1 < stack.length) {
             stackPointer++;
             stack[stackPointer] = address;
-            debugGUI.updateStack(stackPointer,address);
         } else {
             //throw new StackOverflowError("ERROR: Stack overflow when trying to push address " + address);
             System.out.println("WARNING: Stack overflow when trying to push address " + address);
@@ -32,7 +28,6 @@ public class Stack {
     public int pop() {
         if (stackPointer >= 0) {
             int address = stack[stackPointer];
-            debugGUI.updateStack(stackPointer, -1);
             stackPointer--;
             return address;
 
@@ -50,10 +45,6 @@ public class Stack {
 
     }
 
-    public void setDebugGUI(DebugGUI debugGUI){
-        this.debugGUI = debugGUI;
-    }
-
 }
 
 class StackUnderflowError extends RuntimeException{
@@ -0,0 +1,208 @@
+package mochachip;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Read/write watchpoints on address ranges, backed by the per-address barrier flags in Memory
+//Ranges are edited from the GUI thread and applied by the emulation thread at the next frame boundary,
+//so the barrier flags are only ever touched by one thread
+//Hits are kept in a bounded ring buffer and can optionally pause emulation
+public class Watchpoints {
+    public static final int READ = 0x1;
+    public static final int WRITE = 0x2;
+    public static final int LOG_SIZE = 256;
+
+    private Memory memory;
+    private ProgramCounter programCounter;
+    private final List<Range> ranges = new ArrayList<>();
+    private volatile boolean pendingChanges;
+    private volatile boolean pauseOnHit;
+    private boolean armed;
+    //Set by a hit while pauseOnHit is on, consumed by the CPU's frame loop
+    private boolean triggered;
+
+    //Hit log ring buffer
+    private final int[] hitPC = new int[LOG_SIZE];
+    private final int[] hitAddress = new int[LOG_SIZE];
+    private final byte[] hitType = new byte[LOG_SIZE];
+    private final byte[] hitOldValue = new byte[LOG_SIZE];
+    private final byte[] hitNewValue = new byte[LOG_SIZE];
+    private long hitCount;
+
+    //Bind to a freshly reset machine, ranges carry over and are reapplied at the next frame boundary
+    synchronized void attach(Memory memory, ProgramCounter programCounter) {
+        this.memory = memory;
+        this.programCounter = programCounter;
+        memory.setWatchpoints(this);
+        pendingChanges = true;
+    }
+
+    //Watch [start, end] inclusive for the given READ/WRITE mask
+    public synchronized void add(int start, int end, int type) {
+        if (start < 0 || end >= Memory.MEMORY_SIZE || start > end) {
+            throw new IllegalArgumentException("Watchpoint range out of bounds: " + start + "-" + end);
+        }
+        ranges.add(new Range(start, end, type));
+        pendingChanges = true;
+    }
+
+    public synchronized void remove(Range range) {
+        ranges.remove(range);
+        pendingChanges = true;
+    }
+
+    public synchronized void clear() {
+        ranges.clear();
+        pendingChanges = true;
+    }
+
+    public synchronized List<Range> getRanges() {
+        return new ArrayList<>(ranges);
+    }
+
+    boolean hasPendingChanges() {
+        return pendingChanges;
+    }
+
+    //Emulation thread only - rebuild the barrier flags from the current ranges
+    synchronized void apply() {
+        pendingChanges = false;
+        boolean watchingReads = false;
+        for (int address = 0; address < Memory.MEMORY_SIZE; address++) {
+            memory.clearBarrier(address, (byte) (Memory.BARRIER_WATCH_READ | Memory.BARRIER_WATCH_WRITE));
+        }
+        for (Range range : ranges) {
+            for (int address = range.start; address <= range.end; address++) {
+                if ((range.type & READ) != 0) memory.setBarrier(address, Memory.BARRIER_WATCH_READ);
+                if ((range.type & WRITE) != 0) memory.setBarrier(address, Memory.BARRIER_WATCH_WRITE);
+            }
+            watchingReads |= (range.type & READ) != 0;
+        }
+        memory.setWatchingReads(watchingReads);
+        armed = !ranges.isEmpty();
+    }
+
+    //Called by Memory on an access to a watched address
+    //The PC has already moved past the instruction doing the access
+    synchronized void hit(int type, int address, byte oldValue, byte newValue) {
+        int slot = (int) (hitCount % LOG_SIZE);
+        hitPC[slot] = programCounter.currentAddress - 2;
+        hitAddress[slot] = address;
+        hitType[slot] = (byte) type;
+        hitOldValue[slot] = oldValue;
+        hitNewValue[slot] = newValue;
+        hitCount++;
+        if (pauseOnHit) triggered = true;
+    }
+
+    //True while any range is watched. Compiled blocks only store the PC before their last instruction,
+    //so the frame loop runs one interpreted instruction at a time to log the right PC for every hit
+    boolean isArmed() {
+        return armed;
+    }
+
+    boolean consumeTrigger() {
+        boolean wasTriggered = triggered;
+        triggered = false;
+        return wasTriggered;
+    }
+
+    public void setPauseOnHit(boolean pauseOnHit) {
+        this.pauseOnHit = pauseOnHit;
+    }
+
+    public boolean isPauseOnHit() {
+        return pauseOnHit;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    //Most recent hits, oldest first
+    public synchronized List<Hit> getHits() {
+        int count = (int) Math.min(hitCount, LOG_SIZE);
+        List<Hit> hits = new ArrayList<>(count);
+        for (long i = hitCount - count; i < hitCount; i++) {
+            int slot = (int) (i % LOG_SIZE);
+            hits.add(new Hit(hitPC[slot], hitAddress[slot], hitType[slot], hitOldValue[slot] & 0xFF,
+                    hitNewValue[slot] & 0xFF));
+        }
+        return hits;
+    }
+
+    public static class Range {
+        private final int start;
+        private final int end;
+        private final int type;
+
+        public Range(int start, int end, int type) {
+            this.start = start;
+            this.end = end;
+            this.type = type;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            String types = ((type & READ) != 0 ? "R" : "") + ((type & WRITE) != 0 ? "W" : "");
+            return start == end
+                    ? String.format("%03X %s", start, types)
+                    : String.format("%03X-%03X %s", start, end, types);
+        }
+    }
+
+    public static class Hit {
+        private final int pc;
+        private final int address;
+        private final int type;
+        private final int oldValue;
+        private final int newValue;
+
+        public Hit(int pc, int address, int type, int oldValue, int newValue) {
+            this.pc = pc;
+            this.address = address;
+            this.type = type;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        public int getPC() {
+            return pc;
+        }
+
+        public int getAddress() {
+            return address;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        public int getOldValue() {
+            return oldValue;
+        }
+
+        public int getNewValue() {
+            return newValue;
+        }
+
+        @Override
+        public String toString() {
+            return type == WRITE
+                    ? String.format("PC %03X  W [%03X] %02X -> %02X", pc, address, oldValue, newValue)
+                    : String.format("PC %03X  R [%03X] %02X", pc, address, oldValue);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package mochachip;
+
+//Small seedable xorshift64* generator for Cxnn, so random numbers can be saved, restored and replayed
+//Its whole state is one long, which is what goes into save states
+public class Xorshift {
+    private long state;
+
+    public Xorshift(long seed) {
+        setSeed(seed);
+    }
+
+    //A zero state would only ever produce zeros
+    public void setSeed(long seed) {
+        state = seed != 0 ? seed : 0x9E37_79B9_7F4A_7C15L;
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    void setState(long state) {
+        setSeed(state);
+    }
+
+    public int nextByte() {
+        long x = state;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        state = x;
+        return (int) ((x * 0x2545_F491_4F6C_DD1DL) >>> 56);
+    }
+}
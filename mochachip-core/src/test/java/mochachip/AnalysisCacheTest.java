@@ -0,0 +1,48 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisCacheTest {
+    //A call, a skip and a jump back, followed by a SUPER-CHIP hires switch so the platform isn't the default
+    private static final byte[] ROM = {
+            0x22, 0x0A,               //200 CALL 0x20A
+            0x30, 0x01,               //202 SE V0, 0x01
+            0x70, 0x01,               //204 ADD V0, 0x01
+            0x00, (byte) 0xFF,        //206 HIGH
+            0x12, 0x00,               //208 JP 0x200
+            0x61, 0x02,               //20A LD V1, 0x02
+            0x00, (byte) 0xEE         //20C RET
+    };
+
+    @Test
+    void hitRestoresTheWholeAnalysis(@TempDir Path directory) {
+        AnalysisCache cache = new AnalysisCache(directory);
+        Memory memory = new Memory();
+        assertTrue(memory.loadRom(new Rom("cached", ROM)));
+        ControlFlowGraph analyzed = cache.analyze(memory);
+        ControlFlowGraph cached = cache.read(memory.getLoadedRom(), memory.getMemoryArray());
+        assertNotNull(cached);
+
+        assertEquals(Platform.SCHIP, analyzed.getPlatform());
+        assertEquals(analyzed.getPlatform(), cached.getPlatform());
+        assertEquals(analyzed.getBlocks().toString(), cached.getBlocks().toString());
+        List<Instruction> expected = analyzed.getInstructions();
+        List<Instruction> actual = cached.getInstructions();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getAddress(), actual.get(i).getAddress());
+            assertEquals(expected.get(i).getByteCode(), actual.get(i).getByteCode());
+            assertEquals(expected.get(i).getDescription(), actual.get(i).getDescription());
+        }
+        for (int address = 0; address < memory.getMemoryArray().length; address++) {
+            assertEquals(analyzed.isCode(address), cached.isCode(address));
+            assertEquals(analyzed.blockAt(address) == null, cached.blockAt(address) == null);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BreakpointsTest {
+    @Test
+    void armedWhileAnyIsSet() {
+        Breakpoints breakpoints = new Breakpoints();
+        breakpoints.set(0x200, true);
+        breakpoints.set(0xFFF, true);
+        assertTrue(breakpoints.isSet(0xFFF));
+        breakpoints.set(0x200, false);
+        assertTrue(breakpoints.isArmed());
+        breakpoints.toggle(0xFFF);
+        assertFalse(breakpoints.isArmed());
+    }
+
+    @Test
+    void addressOutOfBounds() {
+        Breakpoints breakpoints = new Breakpoints();
+        assertThrows(IllegalArgumentException.class, () -> breakpoints.set(-1, true));
+        assertThrows(IllegalArgumentException.class, () -> breakpoints.set(Memory.MEMORY_SIZE, false));
+        assertThrows(IllegalArgumentException.class, () -> breakpoints.toggle(Memory.MEMORY_SIZE));
+        //Must not alias address 0x200 of the next 4K
+        breakpoints.set(0x200, true);
+        assertThrows(IllegalArgumentException.class, () -> breakpoints.isSet(Memory.MEMORY_SIZE + 0x200));
+        assertThrows(IllegalArgumentException.class, () -> breakpoints.isSet(-1));
+        breakpoints.clear();
+        assertFalse(breakpoints.isArmed());
+    }
+}
@@ -0,0 +1,30 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControlFlowAnalyzerTest {
+    //Straight-line code that runs into the zero padding after the program
+    private static final byte[] PADDED_ROM = {
+            0x60, 0x01,               //200 LD V0, 0x01
+            0x70, 0x01,               //202 ADD V0, 0x01
+            0x00, 0x00,               //204 SYS 0x000
+            0x00, 0x00,
+            0x00, 0x00
+    };
+
+    @Test
+    void sysEndsTheWalk() {
+        Memory memory = new Memory();
+        assertTrue(memory.loadRom(new Rom("padded", PADDED_ROM)));
+        ControlFlowGraph graph = ControlFlowAnalyzer.analyze(memory);
+        assertTrue(graph.isInstructionStart(0x204));
+        assertFalse(graph.isCode(0x206));
+        for (int address = 0x206; address < Memory.MEMORY_SIZE; address++) assertFalse(graph.isCode(address));
+        assertEquals(1, graph.getBlocks().size());
+        ControlFlowGraph.BasicBlock block = graph.blockAt(0x200);
+        assertEquals(0x206, block.getEndAddress());
+        assertEquals(0, block.getSuccessors().length);
+    }
+}
@@ -0,0 +1,51 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecoderTest {
+    //One opcode for every handler, with operands that differ in every field
+    private static final int[][] HANDLERS = {
+            {0x0123, Decoder.SYS}, {0x00E0, Decoder.CLS}, {0x00EE, Decoder.RET}, {0x1ABC, Decoder.JP},
+            {0x2ABC, Decoder.CALL}, {0x3A42, Decoder.SE_BYTE}, {0x4A42, Decoder.SNE_BYTE}, {0x5AB0, Decoder.SE_REG},
+            {0x6A42, Decoder.LD_BYTE}, {0x7A42, Decoder.ADD_BYTE}, {0x8AB0, Decoder.LD_REG}, {0x8AB1, Decoder.OR},
+            {0x8AB2, Decoder.AND}, {0x8AB3, Decoder.XOR}, {0x8AB4, Decoder.ADD_REG}, {0x8AB5, Decoder.SUB},
+            {0x8AB6, Decoder.SHR}, {0x8AB7, Decoder.SUBN}, {0x8ABE, Decoder.SHL}, {0x9AB0, Decoder.SNE_REG},
+            {0xAABC, Decoder.LD_I}, {0xBABC, Decoder.JP_V0}, {0xCA42, Decoder.RND}, {0xDAB5, Decoder.DRW},
+            {0xEA9E, Decoder.SKP}, {0xEAA1, Decoder.SKNP}, {0xFA07, Decoder.LD_VX_DT}, {0xFA0A, Decoder.LD_KEY},
+            {0xFA15, Decoder.LD_DT}, {0xFA18, Decoder.LD_ST}, {0xFA1E, Decoder.ADD_I}, {0xFA29, Decoder.LD_FONT},
+            {0xFA33, Decoder.LD_BCD}, {0xFA55, Decoder.LD_STORE}, {0xFA65, Decoder.LD_LOAD}
+    };
+
+    @Test
+    void everyFamilyDecodesToItsHandler() {
+        boolean[] seen = new boolean[Decoder.OP_COUNT];
+        for (int[] entry : HANDLERS) {
+            assertEquals(entry[1], Decoder.handlerOf(entry[0]), String.format("%04X", entry[0]));
+            seen[entry[1]] = true;
+        }
+        for (int handler = Decoder.SYS; handler < Decoder.OP_COUNT; handler++) {
+            assertTrue(seen[handler], Decoder.nameOf(handler));
+        }
+    }
+
+    @Test
+    void undefinedOpcodesAreInvalid() {
+        for (int opcode : new int[]{0x8AB8, 0x8ABD, 0x8ABF, 0xEA00, 0xEA9F, 0xFA00, 0xFA56, 0xFAFF}) {
+            assertEquals(Decoder.INVALID, Decoder.handlerOf(opcode), String.format("%04X", opcode));
+        }
+    }
+
+    @Test
+    void operandsUnpackForEveryOpcode() {
+        for (int opcode = 0; opcode < Decoder.TABLE_SIZE; opcode++) {
+            int operands = Decoder.OPERANDS[opcode];
+            assertEquals((opcode >> 8) & 0xF, Decoder.x(operands));
+            assertEquals((opcode >> 4) & 0xF, Decoder.y(operands));
+            assertEquals(opcode & 0xF, Decoder.n(operands));
+            assertEquals(opcode & 0xFF, Decoder.nn(operands));
+            assertEquals(opcode & 0xFFF, Decoder.nnn(operands));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmulatorTest {
+    //Counts in V0 forever, so every instruction is visible in the instruction count
+    private static final byte[] COUNT_ROM = {
+            0x70, 0x01,               //200 ADD V0, 1
+            0x12, 0x00                //202 JP 0x200
+    };
+
+    //Post a command and wait until the emulation thread has run everything posted before it
+    private static void drain(Emulator emulator) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        emulator.execute(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void commandsRunInPostingOrder() throws InterruptedException {
+        Emulator emulator = new Emulator();
+        emulator.load(TestMachines.create(COUNT_ROM));
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            emulator.execute(() -> order.add(index));
+        }
+        drain(emulator);
+        emulator.stop();
+        for (int i = 0; i < 100; i++) assertEquals(i, order.get(i));
+    }
+
+    @Test
+    void stepRunsExactlyCountWhilePaused() throws InterruptedException {
+        Emulator emulator = new Emulator();
+        CPU cpu = TestMachines.create(COUNT_ROM);
+        emulator.load(cpu);
+        emulator.pause();
+        drain(emulator);
+        assertTrue(emulator.isPaused());
+        long paused = cpu.getInstructionCount();
+        Thread.sleep(50);
+        assertEquals(paused, cpu.getInstructionCount());
+
+        emulator.step(7);
+        drain(emulator);
+        assertEquals(paused + 7, cpu.getInstructionCount());
+
+        //Steps posted after a resume are dropped, the machine is already running on its own
+        emulator.resume();
+        emulator.step(1_000_000);
+        emulator.pause();
+        drain(emulator);
+        assertTrue(cpu.getInstructionCount() - paused < 1_000_000);
+        emulator.stop();
+    }
+
+    @Test
+    void stopWaitsForTheMachineToBeDropped() throws InterruptedException {
+        Emulator emulator = new Emulator();
+        CPU cpu = TestMachines.create(COUNT_ROM);
+        emulator.load(cpu);
+        drain(emulator);
+        emulator.stop();
+        long stopped = cpu.getInstructionCount();
+        assertTrue(emulator.isPaused());
+        Thread.sleep(50);
+        assertEquals(stopped, cpu.getInstructionCount());
+
+        //The thread outlives the machine and takes the next one, in step mode since it was loaded paused
+        CPU next = TestMachines.create(COUNT_ROM);
+        next.setPaused(true);
+        emulator.load(next);
+        emulator.step(3);
+        drain(emulator);
+        assertEquals(3, next.getInstructionCount());
+        emulator.stop();
+    }
+}
@@ -0,0 +1,73 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionEngineTest {
+    //Calls, skips, ALU ops with carries, RNG, font lookups, draws and a delay timer wait
+    private static final byte[] MIXED_ROM = {
+            0x22, 0x16,               //200 CALL 0x216
+            0x71, 0x07,               //202 ADD V1, 0x07
+            (byte) 0x82, 0x14,        //204 ADD V2, V1
+            (byte) 0x83, 0x26,        //206 SHR V3, V2
+            0x31, 0x00,               //208 SE V1, 0x00
+            (byte) 0x84, 0x35,        //20A SUB V4, V3
+            (byte) 0xF6, 0x07,        //20C LD V6, DT
+            0x36, 0x00,               //20E SE V6, 0x00
+            0x12, 0x0C,               //210 JP 0x20C
+            0x12, 0x00,               //212 JP 0x200
+            0x00, 0x00,
+            (byte) 0xC5, 0x0F,        //216 RND V5, 0x0F
+            (byte) 0xF5, 0x29,        //218 LD F, V5
+            (byte) 0xD4, 0x25,        //21A DRW V4, V2, 5
+            0x60, 0x03,               //21C LD V0, 0x03
+            (byte) 0xF0, 0x15,        //21E LD DT, V0
+            0x00, (byte) 0xEE         //220 RET
+    };
+    //Rewrites the ADD at 0x210 with a new immediate every trip, so a block compiled from the old bytes goes stale
+    private static final byte[] SELF_MODIFYING_ROM = {
+            (byte) 0xA2, 0x10,        //200 LD I, 0x210
+            0x60, 0x73,               //202 LD V0, 0x73
+            0x72, 0x01,               //204 ADD V2, 0x01
+            (byte) 0x81, 0x20,        //206 LD V1, V2
+            (byte) 0xF1, 0x55,        //208 LD [I], V0-V1
+            0x12, 0x10,               //20A JP 0x210
+            0x00, 0x00,
+            0x00, 0x00,
+            0x73, 0x00,               //210 ADD V3, 0x00 (patched)
+            (byte) 0xC4, 0x07,        //212 RND V4, 0x07
+            (byte) 0xF3, 0x29,        //214 LD F, V3
+            (byte) 0xD4, 0x45,        //216 DRW V4, V4, 5
+            0x12, 0x00                //218 JP 0x200
+    };
+    private static final int FRAMES = 200;
+
+    @Test
+    void mixedRomMatches() {
+        assertEnginesMatch(MIXED_ROM);
+    }
+
+    @Test
+    void selfModifyingRomMatches() {
+        assertEnginesMatch(SELF_MODIFYING_ROM);
+    }
+
+    //Runs the ROM under every engine in deterministic mode and compares the whole machine after each frame
+    private static void assertEnginesMatch(byte[] rom) {
+        ExecutionEngine[] engines = ExecutionEngine.values();
+        CPU[] cpus = new CPU[engines.length];
+        for (int i = 0; i < engines.length; i++) {
+            cpus[i] = TestMachines.create(rom, engines[i]);
+            cpus[i].enableDeterministicMode(42);
+        }
+        for (int frame = 0; frame < FRAMES; frame++) {
+            cpus[0].runUnthrottled(1, c -> false);
+            byte[] expected = TestMachines.snapshot(cpus[0]);
+            for (int i = 1; i < cpus.length; i++) {
+                cpus[i].runUnthrottled(1, c -> false);
+                assertArrayEquals(expected, TestMachines.snapshot(cpus[i]), engines[i] + " diverged in frame " + frame);
+            }
+        }
+    }
+}
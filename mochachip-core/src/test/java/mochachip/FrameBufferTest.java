@@ -0,0 +1,59 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameBufferTest {
+    //Draws a 4-row sprite over the bottom-right corner twice, keeping VF after each draw
+    private static final byte[] CORNER_ROM = {
+            0x60, 0x3C,               //200 LD V0, 60
+            0x61, 0x1E,               //202 LD V1, 30
+            (byte) 0xA2, 0x10,        //204 LD I, 0x210
+            (byte) 0xD0, 0x14,        //206 DRW V0, V1, 4
+            (byte) 0x82, (byte) 0xF0, //208 LD V2, VF
+            (byte) 0xD0, 0x14,        //20A DRW V0, V1, 4
+            (byte) 0x83, (byte) 0xF0, //20C LD V3, VF
+            0x12, 0x0E,               //20E JP 0x20E
+            (byte) 0xF0, (byte) 0xFF, (byte) 0x81, (byte) 0xFF //210 sprite
+    };
+    private static final int[] SPRITE = {0xF0, 0xFF, 0x81, 0xFF};
+
+    @Test
+    void spriteWrapsAroundBothEdges() {
+        CPU cpu = TestMachines.create(CORNER_ROM);
+        for (int i = 0; i < 5; i++) cpu.stepInstruction();
+        FrameBuffer screen = cpu.getFrameBuffer();
+        for (int y = 0; y < FrameBuffer.HEIGHT; y++) {
+            for (int x = 0; x < FrameBuffer.WIDTH; x++) {
+                int row = (y - 30 + FrameBuffer.HEIGHT) % FrameBuffer.HEIGHT;
+                int column = (x - 60 + FrameBuffer.WIDTH) % FrameBuffer.WIDTH;
+                boolean lit = row < 4 && column < 8 && (SPRITE[row] & (0x80 >> column)) != 0;
+                assertEquals(lit, screen.getPixelState(x, y), "pixel " + x + "," + y);
+            }
+        }
+        assertEquals(0, cpu.getRegisters().getVariableRegister(2));
+    }
+
+    @Test
+    void redrawAcrossTheEdgesCollidesAndClears() {
+        for (ExecutionEngine engine : ExecutionEngine.values()) {
+            CPU cpu = TestMachines.create(CORNER_ROM, engine);
+            cpu.runUnthrottled(1, c -> false);
+            assertEquals(0, cpu.getRegisters().getVariableRegister(2), engine.toString());
+            assertEquals(1, cpu.getRegisters().getVariableRegister(3), engine.toString());
+            for (int y = 0; y < FrameBuffer.HEIGHT; y++) assertEquals(0, cpu.getFrameBuffer().getRow(y), engine.toString());
+        }
+    }
+
+    @Test
+    void collisionOnlyInTheWrappedPart() {
+        FrameBuffer screen = new FrameBuffer();
+        screen.setPixel(0, 5, true);
+        //The half left of the edge misses the lit pixel, the wrapped half hits it at x = 0
+        assertFalse(screen.drawSpriteRow(60, 5, 0xF0));
+        assertTrue(screen.getPixelState(60, 5) && screen.getPixelState(63, 5));
+        assertTrue(screen.drawSpriteRow(60, 5, 0x08));
+        assertFalse(screen.getPixelState(0, 5));
+    }
+}
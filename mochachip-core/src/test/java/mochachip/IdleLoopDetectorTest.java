@@ -0,0 +1,57 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdleLoopDetectorTest {
+    //Waits on the delay timer, then runs a counting loop that must not be mistaken for an idle one
+    private static final byte[] TIMER_WAIT_ROM = {
+            0x60, 0x03,               //200 LD V0, 0x03
+            (byte) 0xF0, 0x15,        //202 LD DT, V0
+            (byte) 0xF1, 0x07,        //204 LD V1, DT
+            0x31, 0x00,               //206 SE V1, 0x00
+            0x12, 0x04,               //208 JP 0x204
+            0x63, 0x00,               //20A LD V3, 0x00
+            0x73, 0x01,               //20C ADD V3, 0x01
+            0x33, 0x40,               //20E SE V3, 0x40
+            0x12, 0x0C,               //210 JP 0x20C
+            0x72, 0x01,               //212 ADD V2, 0x01
+            (byte) 0xF2, 0x29,        //214 LD F, V2
+            (byte) 0xD4, 0x55,        //216 DRW V4, V5, 5
+            (byte) 0xA3, 0x00,        //218 LD I, 0x300
+            (byte) 0xF2, 0x55,        //21A LD [I], V0-V2
+            0x12, 0x00                //21C JP 0x200
+    };
+    //Not a multiple of 60, so every frame carries a fractional credit over to the next
+    private static final int SPEED = 500;
+    private static final int FRAMES = 200;
+
+    @Test
+    void skippingDoesNotChangeTheMachine() {
+        for (ExecutionEngine engine : ExecutionEngine.values()) {
+            CPU skipping = createCPU(engine, true);
+            CPU running = createCPU(engine, false);
+            for (int frame = 0; frame < FRAMES; frame++) {
+                skipping.runUnthrottled(1, c -> false);
+                running.runUnthrottled(1, c -> false);
+                assertArrayEquals(TestMachines.snapshot(running), TestMachines.snapshot(skipping),
+                        engine + " diverged in frame " + frame);
+            }
+            assertTrue(skipping.getStats().getIdleFrames() > 0, engine.toString());
+            assertEquals(0, running.getStats().getIdleFrames(), engine.toString());
+            assertEquals(running.getFrameBuffer().contentHash(), skipping.getFrameBuffer().contentHash());
+            assertEquals(Arrays.hashCode(running.getMemory().getMemoryArray()),
+                    Arrays.hashCode(skipping.getMemory().getMemoryArray()));
+        }
+    }
+
+    private static CPU createCPU(ExecutionEngine engine, boolean idleSkipping) {
+        CPU cpu = TestMachines.create(TIMER_WAIT_ROM, new Input(), SPEED, engine);
+        cpu.setIdleSkipping(idleSkipping);
+        cpu.enableDeterministicMode(7);
+        return cpu;
+    }
+}
@@ -0,0 +1,73 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputLogTest {
+    //Counts frames with key 5 held, and stores and draws random numbers, so both input and RNG end up in the state
+    private static final byte[] KEY_ROM = {
+            0x60, 0x05,               //LD V0, 5
+            (byte) 0xE0, (byte) 0x9E, //SKP V0
+            0x12, 0x08,               //JP 0x208
+            0x71, 0x01,               //ADD V1, 1
+            (byte) 0xC2, (byte) 0xFF, //RND V2, FF
+            (byte) 0xA3, 0x00,        //LD I, 0x300
+            (byte) 0xF2, 0x55,        //LD [I], V0-V2
+            (byte) 0xD1, 0x25,        //DRW V1, V2, 5
+            0x12, 0x02                //JP 0x202
+    };
+    private static final int SPEED = TestMachines.SPEED;
+    private static final int FRAMES = 300;
+
+    private static CPU createCPU(Input input) {
+        return TestMachines.create(KEY_ROM, input, SPEED, ExecutionEngine.INTERPRETER);
+    }
+
+    @Test
+    void replayMatchesRecording() throws IOException {
+        Input input = new Input();
+        CPU recorder = createCPU(input);
+        //Recorded without idle skipping, which the replay has to pick up from the log
+        InputLog log = new InputLog(1234, SPEED, false, recorder.getMemory().getLoadedRom().getHash());
+        recorder.setIdleSkipping(log.isIdleSkipping());
+        recorder.enableDeterministicMode(log.getSeed());
+        recorder.setInputRecording(log);
+        for (int frame = 0; frame < FRAMES; frame++) {
+            if (frame % 17 == 3) input.pressKey(5);
+            if (frame % 17 == 11) input.releaseKey(5);
+            recorder.runUnthrottled(1, c -> false);
+        }
+        byte[] recorded = TestMachines.snapshot(recorder);
+
+        Path file = Files.createTempFile("replay", ".mcinput");
+        try {
+            log.write(file);
+            CPU player = createCPU(new Input());
+            long frames = new HeadlessRunner(player).replay(InputLog.read(file));
+            assertEquals(FRAMES, frames);
+            assertFalse(player.isIdleSkipping());
+            player.runUnthrottled(frames, c -> false);
+            assertArrayEquals(recorded, TestMachines.snapshot(player));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void recordingLocksTheSession() {
+        CPU cpu = createCPU(new Input());
+        cpu.enableDeterministicMode(1);
+        cpu.setInputRecording(new InputLog(1, SPEED, true, "hash"));
+        SaveState state = new SaveState();
+        cpu.saveState(state);
+        assertThrows(IllegalStateException.class, () -> cpu.loadState(state));
+        cpu.setCyclesPerSecond(SPEED * 2);
+        cpu.runUnthrottled(1, c -> false);
+        assertEquals(SPEED / 60, cpu.getInstructionCount());
+    }
+}
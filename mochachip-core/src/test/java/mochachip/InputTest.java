@@ -0,0 +1,67 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void heldKeyReturnsStraightAway() {
+        Input input = new Input();
+        input.pressKey(0xA);
+        assertTimeoutPreemptively(TIMEOUT, input::awaitKeyPress);
+    }
+
+    @Test
+    void pressFromAnotherThreadUnparksTheWaiter() throws InterruptedException {
+        Input input = new Input();
+        CountDownLatch returned = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            //Spurious wakeups are allowed, so wait the way CPU does and re-check the keypad
+            while (!input.isAnyKeyPressed()) input.awaitKeyPress();
+            returned.countDown();
+        });
+        waiter.start();
+        //Give the waiter time to park before the press
+        assertFalse(returned.await(100, TimeUnit.MILLISECONDS));
+        input.pressKey(0x3);
+        assertTrue(returned.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        waiter.join();
+    }
+
+    @Test
+    void keysOffTheKeypadAreIgnored() {
+        Input input = new Input();
+        input.pressKey(Input.NO_KEY);
+        input.pressKey(-1);
+        assertEquals(0, input.getKeyMask());
+        assertEquals(Input.NO_KEY, input.getLastKeyPressed());
+    }
+
+    @Test
+    void keyWaitingMachineResumesOnPress() throws InterruptedException {
+        Input input = new Input();
+        //Fx0A then an increment, so V4 only changes once the wait is satisfied
+        CPU cpu = TestMachines.create(new byte[]{(byte) 0xF3, 0x0A, 0x74, 0x01, 0x12, 0x04}, input,
+                TestMachines.SPEED, ExecutionEngine.INTERPRETER);
+        Emulator emulator = new Emulator();
+        emulator.load(cpu);
+        try {
+            Thread.sleep(100);
+            assertEquals(0, cpu.getRegisters().getVariableRegister(4));
+            input.pressKey(0xB);
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                while (cpu.getRegisters().getVariableRegister(4) == 0) Thread.onSpinWait();
+            });
+        } finally {
+            emulator.stop();
+        }
+        assertEquals(0xB, cpu.getRegisters().getVariableRegister(3));
+    }
+}
@@ -0,0 +1,65 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewindBufferTest {
+    //Fills RAM from 0x300 with random pairs, so keyframes keep growing while the deltas stay small
+    private static final byte[] FILL_ROM = {
+            (byte) 0xA3, 0x00,       //LD I, 0x300
+            0x62, 0x02,              //LD V2, 2
+            (byte) 0xC0, (byte) 0xFF, //RND V0, FF
+            (byte) 0xC1, (byte) 0xFF, //RND V1, FF
+            (byte) 0xF1, 0x55,       //LD [I], V0-V1
+            (byte) 0xF2, 0x1E,       //ADD I, V2
+            0x12, 0x04               //JP 0x204
+    };
+
+    private static CPU createCPU() {
+        CPU cpu = TestMachines.create(FILL_ROM);
+        cpu.enableDeterministicMode(1);
+        return cpu;
+    }
+
+    private static void runAndCapture(CPU cpu, RewindBuffer buffer, List<byte[]> history, int frames) {
+        for (int i = 0; i < frames; i++) {
+            cpu.runUnthrottled(1, c -> false);
+            buffer.capture(cpu);
+            history.add(TestMachines.snapshot(cpu));
+        }
+    }
+
+    //Rewinding must give back exactly the captured frames, newest first
+    private static void rewindAndCompare(CPU cpu, RewindBuffer buffer, List<byte[]> history, int frames) {
+        for (int i = 0; i < frames; i++) {
+            assertTrue(buffer.rewind(cpu));
+            assertArrayEquals(history.remove(history.size() - 1), TestMachines.snapshot(cpu),
+                    "frame " + history.size());
+        }
+    }
+
+    @Test
+    void roundTripAcrossSeveralWraps() {
+        CPU cpu = createCPU();
+        //A small arena and a short keyframe interval, so records of growing size wrap it at a different place
+        //on every pass
+        RewindBuffer buffer = new RewindBuffer(20000, 3);
+        List<byte[]> history = new ArrayList<>();
+        runAndCapture(cpu, buffer, history, 250);
+        rewindAndCompare(cpu, buffer, history, 25);
+        runAndCapture(cpu, buffer, history, 250);
+        int stored = buffer.getFrameCount();
+        assertTrue(stored > 10 && stored < history.size(), "the arena should have wrapped, " + stored + " frames kept");
+        rewindAndCompare(cpu, buffer, history, stored);
+        assertFalse(buffer.rewind(cpu));
+    }
+
+    @Test
+    void rewindOnEmptyBuffer() {
+        assertFalse(new RewindBuffer().rewind(createCPU()));
+    }
+}
@@ -0,0 +1,60 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RomLibraryTest {
+    //Header, no roots, then count entries with the given platform byte
+    private static byte[] index(int count, int platform) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x4D43_4C49);
+        out.writeInt(1);
+        out.writeInt(0);
+        out.writeInt(count);
+        out.writeUTF("game.ch8");
+        out.writeUTF("game.ch8");
+        out.writeLong(0);
+        out.writeLong(4);
+        out.writeUTF("hash");
+        out.writeInt(4);
+        out.writeLong(0);
+        out.writeByte(platform);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void readsBackWhatItWrote(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("library.idx");
+        Files.write(file, index(1, Platform.SCHIP.ordinal()));
+        RomLibrary library = new RomLibrary(file);
+        assertTrue(library.load());
+        library.save();
+        assertArrayEquals(index(1, Platform.SCHIP.ordinal()), Files.readAllBytes(file));
+    }
+
+    @Test
+    void corruptIndexLoadsEmpty(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("library.idx");
+        byte[] valid = index(1, 0);
+        byte[][] corrupt = {
+                index(1, 0xFF),
+                index(-1, 0),
+                index(Integer.MAX_VALUE, 0),
+                Arrays.copyOf(valid, valid.length - 3)
+        };
+        for (byte[] data : corrupt) {
+            Files.write(file, data);
+            assertFalse(new RomLibrary(file).load());
+        }
+    }
+}
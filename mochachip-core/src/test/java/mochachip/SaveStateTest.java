@@ -0,0 +1,47 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveStateTest {
+    @Test
+    void capturedStateRoundTrips() {
+        byte[] data = TestMachines.snapshot(TestMachines.create(null));
+        assertArrayEquals(data, SaveState.fromBytes(data).getData());
+    }
+
+    @Test
+    void rejectsFieldsTheCpuWouldIndexWith() {
+        assertRejected(cpu -> cpu.programCounter.currentAddress = Memory.MEMORY_SIZE);
+        assertRejected(cpu -> cpu.registers.indexRegister = -1);
+        assertRejected(cpu -> cpu.stack.stackPointer = 16);
+        assertRejected(cpu -> {
+            cpu.stack.stackPointer = 0;
+            cpu.stack.stack[0] = 0x1000;
+        });
+        assertRejected(cpu -> {
+            cpu.waitingForKeyPress = true;
+            cpu.waitingRegister = -1;
+        });
+        assertRejected(cpu -> cpu.waitingRegister = 16);
+    }
+
+    @Test
+    void rejectsZeroRandomState() {
+        byte[] data = TestMachines.snapshot(TestMachines.create(null));
+        //The RNG state is the long just before the frame timing fields at the end
+        Arrays.fill(data, SaveState.SIZE - 32, SaveState.SIZE - 24, (byte) 0);
+        assertThrows(IllegalArgumentException.class, () -> SaveState.fromBytes(data));
+    }
+
+    private static void assertRejected(Consumer<CPU> corruption) {
+        CPU cpu = TestMachines.create(null);
+        corruption.accept(cpu);
+        byte[] data = TestMachines.snapshot(cpu);
+        assertThrows(IllegalArgumentException.class, () -> SaveState.fromBytes(data));
+    }
+}
@@ -0,0 +1,35 @@
+package mochachip;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Shared setup for tests that run programs: a freshly reset machine with its own screen, and whole-state snapshots
+final class TestMachines {
+    static final int SPEED = 600;
+
+    private TestMachines() {
+    }
+
+    static CPU create(byte[] rom) {
+        return create(rom, new Input(), SPEED, ExecutionEngine.INTERPRETER);
+    }
+
+    static CPU create(byte[] rom, ExecutionEngine engine) {
+        return create(rom, new Input(), SPEED, engine);
+    }
+
+    //A null rom leaves memory as reset() does, with only the font loaded
+    static CPU create(byte[] rom, Input input, int speed, ExecutionEngine engine) {
+        CPU cpu = new CPU(input, new FrameBuffer(), speed);
+        cpu.setExecutionEngine(engine);
+        cpu.reset();
+        if (rom != null) assertTrue(cpu.getMemory().loadRom(new Rom("test", rom)));
+        return cpu;
+    }
+
+    //Copy of the whole machine, safe to keep across later frames
+    static byte[] snapshot(CPU cpu) {
+        SaveState state = new SaveState();
+        cpu.saveState(state);
+        return state.getData().clone();
+    }
+}
@@ -0,0 +1,34 @@
+package mochachip;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchpointsTest {
+    //A loop whose block reads memory in the middle, so a compiled block would report a stale PC
+    private static final byte[] LOAD_ROM = {
+            (byte) 0xA3, 0x00,        //200 LD I, 0x300
+            (byte) 0xF0, 0x65,        //202 LD V0, [I]
+            0x61, 0x22,               //204 LD V1, 0x22
+            0x12, 0x00                //206 JP 0x200
+    };
+
+    @Test
+    void hitLogsTheReadingInstructionUnderBothEngines() {
+        for (ExecutionEngine engine : ExecutionEngine.values()) {
+            CPU cpu = TestMachines.create(LOAD_ROM, engine);
+            cpu.getWatchpoints().add(0x300, 0x300, Watchpoints.READ);
+            cpu.runUnthrottled(10, c -> false);
+            List<Watchpoints.Hit> hits = cpu.getWatchpoints().getHits();
+            assertFalse(hits.isEmpty(), engine.toString());
+            for (Watchpoints.Hit hit : hits) assertEquals(0x202, hit.getPC(), engine.toString());
+        }
+    }
+
+    @Test
+    void rangeOutOfBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new Watchpoints().add(0xFFF, 0x1000, Watchpoints.WRITE));
+    }
+}
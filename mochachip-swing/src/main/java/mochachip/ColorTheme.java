@@ -1,6 +1,7 @@
 package mochachip;
 
 import java.awt.*;
+import java.awt.image.IndexColorModel;
 
 public class ColorTheme {
 
@@ -73,4 +74,12 @@ public class ColorTheme {
     public void setForeground(Color foreground) {
         this.foreground = foreground;
     }
+
+    //Two-entry palette for a 1-bit image: index 0 is the background, index 1 the foreground
+    public IndexColorModel getColorModel() {
+        byte[] red = {(byte) background.getRed(), (byte) foreground.getRed()};
+        byte[] green = {(byte) background.getGreen(), (byte) foreground.getGreen()};
+        byte[] blue = {(byte) background.getBlue(), (byte) foreground.getBlue()};
+        return new IndexColorModel(1, 2, red, green, blue);
+    }
 }
@@ -0,0 +1,89 @@
+package mochachip;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+public class Display extends JPanel {
+    final int displayWidth = FrameBuffer.WIDTH;
+    final int displayHeight = FrameBuffer.HEIGHT;
+    private final FrameBuffer frameBuffer;
+    public Input input;
+    public int scaleFactor = 16;
+    public int windowWidth = displayWidth * scaleFactor;
+    public int windowHeight = displayHeight * scaleFactor;
+    ColorTheme colorTheme;
+    //1-bit 64x32 image, scaled up by the graphics pipeline when painted
+    //Its color model is the palette, so theme changes never touch the pixels
+    private BufferedImage image;
+
+    public Display(Input input) {
+        this.input = input;
+        this.colorTheme = new ColorTheme();
+        this.frameBuffer = new FrameBuffer();
+        this.image = new BufferedImage(displayWidth, displayHeight, BufferedImage.TYPE_BYTE_BINARY,
+                colorTheme.getColorModel());
+        //Called at most once per 60 Hz frame, repaint() requests are coalesced by Swing
+        frameBuffer.setFrameListener(this::repaint);
+        setPreferredSize(new Dimension((displayWidth * scaleFactor), (displayHeight * scaleFactor)));
+        addKeyListener(new KeyboardInput(input));
+        reset();
+    }
+
+    public void reset() {
+        frameBuffer.clear();
+        frameBuffer.endFrame();
+        setFocusable(true);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (frameBuffer.hasNewFrame()) {
+            updateImage(frameBuffer.acquireFrame());
+        }
+        g.setColor(colorTheme.getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        ((Graphics2D) g).setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g.drawImage(image, 0, 0, displayWidth * scaleFactor, displayHeight * scaleFactor, null);
+    }
+
+    //Copy a published frame into the image - a 1-bit row is 8 bytes with the leftmost pixel in the top bit,
+    //the same layout as a framebuffer row
+    private void updateImage(long[] frame) {
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < displayHeight; y++) {
+            long row = frame[y];
+            for (int i = 0; i < 8; i++) {
+                pixels[y * 8 + i] = (byte) (row >>> (56 - i * 8));
+            }
+        }
+    }
+
+
+    public void resizeDisplay() {
+        setPreferredSize(new Dimension((displayWidth * scaleFactor), (displayHeight * scaleFactor)));
+        revalidate();
+        repaint();
+    }
+
+    public void adjustSize(int scaleFactor) {
+        this.scaleFactor = scaleFactor;
+        resizeDisplay();
+    }
+
+
+    public void setColorTheme(ColorTheme.Chip8Color theme) {
+        colorTheme.setTheme(theme);
+        //Swap the palette only, the raster is shared with the old image
+        image = new BufferedImage(colorTheme.getColorModel(), image.getRaster(), false, null);
+        revalidate();
+        repaint();
+    }
+
+    public FrameBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+}
@@ -3,39 +3,14 @@ package mochachip;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 
-public class Input implements KeyListener {
-    boolean[] keys;
-    CPU cpu;
+//Feeds AWT key events into the CHIP-8 keypad
+public class KeyboardInput implements KeyListener {
+    private final Input input;
 
-
-    int lastKeyPressed = 16;
-
-    public Input() {
-        reset();
-    }
-
-    public void reset(){
-        keys = new boolean[17];
-    }
-
-    public void pressKey(int key) {
-        keys[key] = true;
-        lastKeyPressed = key;
-    }
-
-    public void releaseKey(int key) {
-        keys[key] = false;
-    }
-
-    public boolean isKeyPressed(int key) {
-        return keys[key];
+    public KeyboardInput(Input input) {
+        this.input = input;
     }
 
-    public int waitForKeyPress() {
-        return 0;
-    }
-
-
     @Override
     public void keyTyped(KeyEvent e) {
         //
@@ -44,13 +19,13 @@ public class Input implements KeyListener {
     @Override
     public void keyPressed(KeyEvent e) {
         int key = mapKey(e.getKeyCode());
-        pressKey(key);
+        input.pressKey(key);
     }
 
     @Override
     public void keyReleased(KeyEvent e) {
         int key = mapKey(e.getKeyCode());
-        releaseKey(key);
+        input.releaseKey(key);
 
     }
 
@@ -73,24 +48,8 @@ public class Input implements KeyListener {
             case KeyEvent.VK_X -> 0x0;
             case KeyEvent.VK_C -> 0xB;
             case KeyEvent.VK_V -> 0xF;
-            //Any other key is not valid, set it to the top of the array
-            default -> 16;
+            //Any other key is not on the keypad
+            default -> Input.NO_KEY;
         };
     }
-
-    public int getLastKeyPressed() {
-        return lastKeyPressed;
-    }
-
-    public void resetLastKeyPressed() {
-        this.lastKeyPressed = 16;
-    }
-
-    public boolean isAnyKeyPressed() {
-        for (boolean key : keys) {
-            if (key) return true;
-        }
-        return false;
-    }
-
 }
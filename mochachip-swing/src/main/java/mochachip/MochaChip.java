@@ -0,0 +1,47 @@
+package mochachip;
+
+import com.formdev.flatlaf.FlatDarkLaf;
+import mochachip.gui.MochaChipGUI;
+
+import javax.swing.*;
+
+public class MochaChip {
+    private MochaChipGUI gui;
+    private Display display;
+    private Input input;
+    private CPU cpu;
+
+    public MochaChip(ExecutionEngine executionEngine) {
+        input = new Input();
+        display = new Display(input);
+        //cpu = new CPU(input, display);
+        gui = new MochaChipGUI(input, display, cpu, executionEngine);
+
+    }
+
+
+    public static void main(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--headless")) {
+                HeadlessRunner.main(args);
+                return;
+            }
+        }
+        //--engine=jit picks the block JIT for this session
+        ExecutionEngine executionEngine = ExecutionEngine.INTERPRETER;
+        for (String arg : args) {
+            if (arg.startsWith("--engine=")) {
+                executionEngine = ExecutionEngine.fromString(arg.substring("--engine=".length()));
+            }
+        }
+        ExecutionEngine engine = executionEngine;
+        SwingUtilities.invokeLater(() -> {
+            FlatDarkLaf.setup();
+            UIManager.put("MenuBar.background", UIManager.getColor("Panel.background"));
+            MochaChip emulator = new MochaChip(engine);
+            emulator.gui.getFrame().setLocationRelativeTo(null);
+            emulator.gui.getFrame().setVisible(true);
+        });
+
+    }
+}
@@ -0,0 +1,35 @@
+package mochachip.gui;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+
+//Custom table cell renderer to display breakpoints
+//The same component is reused for every cell, only its state changes between cells
+public class BreakpointCellRenderer extends DefaultTableCellRenderer {
+    private boolean breakpointSet;
+
+    public BreakpointCellRenderer() {
+        setOpaque(true);
+        setBorder(BorderFactory.createMatteBorder(0, 0, 0, 1, Color.GRAY));
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
+                                                   int row, int column) {
+        breakpointSet = value instanceof Boolean && (Boolean) value;
+        setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
+        return this;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        //Draw a red circle if a breakpoint is set on this row
+        if (breakpointSet) {
+            g.setColor(Color.RED);
+            g.fillOval(10, 5, 10, 10);
+        }
+    }
+}
@@ -0,0 +1,580 @@
+package mochachip.gui;
+
+import mochachip.CPU;
+import mochachip.ControlFlowGraph;
+import mochachip.Emulator;
+import mochachip.Instruction;
+import mochachip.MachineListener;
+import mochachip.MachineState;
+import mochachip.Memory;
+import mochachip.Profiler;
+import mochachip.Watchpoints;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.List;
+
+public class DebugGUI implements MachineListener {
+    private MochaChipGUI mochaChipGUI;
+    private JFrame frame;
+    private JPanel memoryViewerPanel;
+    private MemoryViewer memoryViewer;
+    private JTable instructionViewerTable;
+    private JPanel registerViewerPanel;
+    private JPanel stackViewerPanel;
+    private JPanel registerAndStackPanel;
+    private JPanel instructionViewerPanel;
+    private JPanel stepModePanel;
+    private JLabel[] registerViewerLabels;
+    private JLabel[] stackViewerLabels;
+    private JScrollPane instructionViewerScrollPane;
+    private CPU cpu;
+    private JLabel registerILabel;
+    private JLabel registerDTLabel;
+    private JLabel registerSTLabel;
+    private JLabel registerPCLabel;
+    private JCheckBox stepModeCheckBox;
+    private JButton stepModeStepThroughButton;
+    private JCheckBox profileCheckBox;
+    private JButton hotSpotsButton;
+    //Created when profiling is first switched on, kept while it's paused so the counts stay visible
+    private Profiler profiler;
+    private List<Instruction> instructionList;
+    private ControlFlowGraph controlFlowGraph;
+    private InstructionTableModel instructionTableModel;
+    //Also set from the emulation thread when a breakpoint is hit
+    private volatile boolean stepMode = false;
+    //Register and stack view is refreshed by polling the CPU instead of on every write
+    private static final int REFRESH_RATE = 30;
+    private static final int SHOWN_I = 16;
+    private static final int SHOWN_DT = 17;
+    private static final int SHOWN_ST = 18;
+    private static final int SHOWN_PC = 19;
+    private static final int SHOWN_STACK = 20;
+    //The heat column is repainted every this many refreshes
+    private static final int HEAT_REFRESH_INTERVAL = 15;
+    private int heatRefreshCountdown;
+    private final MachineState state = new MachineState();
+    //Values currently shown in the labels, in the order V0-VF, I, DT, ST, PC, stack
+    private final int[] shownValues = new int[SHOWN_STACK + 16];
+    private Timer refreshTimer;
+    private JTextField watchpointRangeField;
+    private JCheckBox watchpointReadCheckBox;
+    private JCheckBox watchpointWriteCheckBox;
+    private JCheckBox watchpointPauseCheckBox;
+    private DefaultListModel<String> watchpointHitListModel;
+    private JLabel watchpointRangesLabel;
+    //Hit count shown in the watchpoint list, so the list is only rebuilt after new hits
+    private long shownWatchpointHits = -1;
+
+    Color bgColor = new Color(25, 25, 25);
+    Color textColor = new Color(230, 230, 230);
+    Font font = new Font("Monospaced", Font.PLAIN, 12);
+
+    public DebugGUI(CPU cpu, MochaChipGUI mochaChipGUI) {
+        this.mochaChipGUI = mochaChipGUI;
+        this.cpu = cpu;
+        frame = new JFrame();
+        init();
+    }
+
+    private void init() {
+
+        //Init main panels
+        memoryViewerPanel = new JPanel();
+        registerViewerPanel = new JPanel();
+        stackViewerPanel = new JPanel();
+        registerAndStackPanel = new JPanel(); //Parent for registry and stack
+        instructionViewerPanel = new JPanel();
+
+        //Init text areas and tables
+        memoryViewer = new MemoryViewer(font, bgColor, textColor);
+        instructionViewerTable = new JTable();
+
+        //Memory viewer
+        memoryViewerPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        memoryViewerPanel.setLayout(new BorderLayout());
+
+        //Memory viewer scroll pane
+        JScrollPane memoryViewerScrollPane = new JScrollPane(memoryViewer);
+        memoryViewerScrollPane.setVerticalScrollBar(memoryViewerScrollPane.createVerticalScrollBar());
+        memoryViewerPanel.add(memoryViewerScrollPane, BorderLayout.CENTER);
+
+        //RegisterAndStack properties
+        registerAndStackPanel.setLayout(new GridLayout(2, 1, 5, 5));
+        registerAndStackPanel.add(registerViewerPanel);
+        registerAndStackPanel.add(stackViewerPanel);
+
+        //Register viewer properties
+        registerViewerPanel.setLayout(new GridLayout(0, 2, 25, 25));
+        registerViewerPanel.setBackground(bgColor);
+        registerViewerPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel vRegistersPanel = new JPanel();
+        vRegistersPanel.setLayout(new GridLayout(0, 2, 5, 5));
+        vRegistersPanel.setBackground(bgColor);
+
+        //left column: v registers
+        JLabel registerViewerVHeader = new JLabel();
+        registerViewerVHeader.setText("Registers: ");
+        registerViewerVHeader.setHorizontalAlignment(JLabel.LEFT);
+        registerViewerVHeader.setForeground(textColor);
+        registerViewerVHeader.setFont(font);
+        vRegistersPanel.add(registerViewerVHeader);
+        vRegistersPanel.add(Box.createVerticalStrut(5));
+
+        //Init labels for registers
+        registerViewerLabels = new JLabel[16];
+
+        for (int i = 0; i < 16; i++) {
+            registerViewerLabels[i] = new JLabel();
+            String regNum = String.format("%01X", i);
+            registerViewerLabels[i].setText("V" + regNum + ": 00");
+            registerViewerLabels[i].setHorizontalAlignment(JLabel.LEFT);
+            registerViewerLabels[i].setFont(font);
+            registerViewerLabels[i].setForeground(textColor);
+            vRegistersPanel.add(registerViewerLabels[i]);
+        }
+
+        registerViewerPanel.add(vRegistersPanel);
+
+        //right column: additional registers
+        JPanel additionalRegistersPanel = new JPanel();
+        additionalRegistersPanel.setLayout(new GridLayout(0, 1, 5, 5));
+        additionalRegistersPanel.setBackground(bgColor);
+
+        additionalRegistersPanel.add(Box.createVerticalStrut(1));
+
+        //Init labels for additional registers
+        registerILabel = new JLabel("I: 00");
+        registerILabel.setHorizontalAlignment(JLabel.LEFT);
+        registerILabel.setForeground(textColor);
+        registerILabel.setFont(font);
+        additionalRegistersPanel.add(registerILabel);
+
+        registerDTLabel = new JLabel("DT: 00");
+        registerDTLabel.setHorizontalAlignment(JLabel.LEFT);
+        registerDTLabel.setForeground(textColor);
+        registerDTLabel.setFont(font);
+        additionalRegistersPanel.add(registerDTLabel);
+
+        registerSTLabel = new JLabel("ST: 00");
+        registerSTLabel.setHorizontalAlignment(JLabel.LEFT);
+        registerSTLabel.setForeground(textColor);
+        registerSTLabel.setFont(font);
+        additionalRegistersPanel.add(registerSTLabel);
+
+        registerPCLabel = new JLabel("PC: 00");
+        registerPCLabel.setHorizontalAlignment(JLabel.LEFT);
+        registerPCLabel.setForeground(textColor);
+        registerPCLabel.setFont(font);
+        additionalRegistersPanel.add(registerPCLabel);
+
+        registerViewerPanel.add(additionalRegistersPanel);
+
+        //Stack panel properties
+        stackViewerPanel.setBackground(bgColor);
+        stackViewerPanel.setLayout(new GridLayout(0, 2, 5, 5));
+        stackViewerPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        JLabel stackHeaderLabel = new JLabel("Stack: ");
+        stackHeaderLabel.setForeground(textColor);
+        stackHeaderLabel.setFont(font);
+        stackViewerPanel.add(stackHeaderLabel);
+        stackViewerPanel.add(Box.createVerticalStrut(20));
+
+        //Init labels for stack viewer
+        stackViewerLabels = new JLabel[16];
+        for (int i = 0; i < 16; i++) {
+            String addr = String.format("%01X", i);
+            stackViewerLabels[i] = new JLabel(addr + ": ");
+            stackViewerLabels[i].setForeground(textColor);
+            stackViewerLabels[i].setFont(font);
+            stackViewerPanel.add(stackViewerLabels[i]);
+        }
+
+        //Step Mode
+        stepModePanel = new JPanel();
+        stepModePanel.setLayout(new BoxLayout(stepModePanel, BoxLayout.X_AXIS));
+        //stepModePanel.setMaximumSize(new Dimension(100,100));
+        stepModeCheckBox = new JCheckBox("Enable step mode: ");
+        stepModeCheckBox.addActionListener(e -> toggleStepMode());
+        stepModeStepThroughButton = new JButton("->");
+        stepModeStepThroughButton.setEnabled(false);
+        stepModeStepThroughButton.setToolTipText("Step through");
+        stepModeStepThroughButton.addActionListener(e -> stepThrough());
+        stepModePanel.add(stepModeCheckBox);
+        stepModePanel.add(stepModeStepThroughButton);
+        profileCheckBox = new JCheckBox("Profile");
+        profileCheckBox.setToolTipText("Count how often each instruction runs, shown in the Heat column");
+        profileCheckBox.addActionListener(e -> setProfiling(profileCheckBox.isSelected()));
+        hotSpotsButton = new JButton("Hot spots...");
+        hotSpotsButton.setEnabled(false);
+        hotSpotsButton.addActionListener(e -> new HotSpotDialog(frame, this, mochaChipGUI.getEmulator(), cpu, profiler).setVisible(true));
+        stepModePanel.add(Box.createHorizontalStrut(10));
+        stepModePanel.add(profileCheckBox);
+        stepModePanel.add(hotSpotsButton);
+        instructionViewerPanel.add(stepModePanel);
+
+        //Instruction panel properties
+        instructionViewerPanel.add(instructionViewerTable);
+        instructionViewerPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        instructionViewerPanel.setLayout(new BoxLayout(instructionViewerPanel, BoxLayout.Y_AXIS));
+
+        //Instruction table properties - clicking the BRK column toggles a breakpoint
+        instructionViewerTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = instructionViewerTable.rowAtPoint(e.getPoint());
+                int column = instructionViewerTable.columnAtPoint(e.getPoint());
+                if (row >= 0 && column == 0 && instructionTableModel != null) {
+                    int address = instructionTableModel.getAddress(row);
+                    cpu.getBreakpoints().toggle(address);
+                    instructionTableModel.fireAddressUpdated(address);
+                }
+            }
+        });
+        instructionViewerTable.setBackground(bgColor);
+        instructionViewerTable.setForeground(textColor);
+        instructionViewerTable.setFont(font);
+
+
+        //Instruction panel scroll pane
+        instructionViewerScrollPane = new JScrollPane(instructionViewerTable);
+        instructionViewerScrollPane.setVerticalScrollBar(instructionViewerScrollPane.createVerticalScrollBar());
+        instructionViewerPanel.add(instructionViewerScrollPane, BorderLayout.CENTER);
+
+
+        //Watchpoints, below the memory viewer
+        memoryViewerPanel.add(createWatchpointPanel(), BorderLayout.SOUTH);
+
+        //Setup whole frame and finish
+        frame.setLayout(new GridLayout(1, 3, 5, 5));
+        frame.add(memoryViewerPanel);
+        frame.add(registerAndStackPanel);
+        frame.add(instructionViewerPanel);
+
+        frame.setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
+        frame.setResizable(true);
+        frame.setPreferredSize(new Dimension(1024, 768));
+        frame.pack();
+
+        refreshTimer = new Timer(1000 / REFRESH_RATE, e -> refresh());
+        frame.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                super.componentHidden(e);
+                refreshTimer.stop();
+            }
+
+            @Override
+            public void componentShown(ComponentEvent e) {
+                super.componentShown(e);
+                //Force every label to be redrawn on the first refresh
+                Arrays.fill(shownValues, Integer.MIN_VALUE);
+                shownWatchpointHits = -1;
+                refreshTimer.start();
+                if (stepMode) {
+                    stepModeCheckBox.setSelected(true);
+                    stepModeStepThroughButton.setEnabled(true);
+                } else {
+                    stepModeCheckBox.setSelected(false);
+                    stepModeStepThroughButton.setEnabled(false);
+                }
+            }
+        });
+    }
+
+    //Range field takes "addr" or "start-end" in hex, e.g. 300-30F
+    private JPanel createWatchpointPanel() {
+        JPanel watchpointPanel = new JPanel(new BorderLayout(5, 5));
+        watchpointPanel.setBorder(BorderFactory.createTitledBorder("Watchpoints"));
+
+        JPanel controls = new JPanel();
+        controls.setLayout(new BoxLayout(controls, BoxLayout.X_AXIS));
+        watchpointRangeField = new JTextField(9);
+        watchpointRangeField.setFont(font);
+        watchpointRangeField.setToolTipText("Address or range in hex, e.g. 300-30F");
+        watchpointReadCheckBox = new JCheckBox("R");
+        watchpointWriteCheckBox = new JCheckBox("W", true);
+        watchpointPauseCheckBox = new JCheckBox("Pause on hit");
+        watchpointPauseCheckBox.addActionListener(e -> {
+            if (cpu != null) cpu.getWatchpoints().setPauseOnHit(watchpointPauseCheckBox.isSelected());
+        });
+        JButton addButton = new JButton("Add");
+        addButton.addActionListener(e -> addWatchpoint());
+        JButton clearButton = new JButton("Clear");
+        clearButton.addActionListener(e -> {
+            if (cpu == null) return;
+            cpu.getWatchpoints().clear();
+            updateWatchpointRanges();
+        });
+        controls.add(watchpointRangeField);
+        controls.add(watchpointReadCheckBox);
+        controls.add(watchpointWriteCheckBox);
+        controls.add(addButton);
+        controls.add(clearButton);
+        controls.add(watchpointPauseCheckBox);
+        watchpointPanel.add(controls, BorderLayout.NORTH);
+
+        watchpointRangesLabel = new JLabel(" ");
+        watchpointRangesLabel.setFont(font);
+        watchpointPanel.add(watchpointRangesLabel, BorderLayout.CENTER);
+
+        watchpointHitListModel = new DefaultListModel<>();
+        JList<String> hitList = new JList<>(watchpointHitListModel);
+        hitList.setFont(font);
+        hitList.setBackground(bgColor);
+        hitList.setForeground(textColor);
+        JScrollPane hitScrollPane = new JScrollPane(hitList);
+        hitScrollPane.setPreferredSize(new Dimension(0, 150));
+        watchpointPanel.add(hitScrollPane, BorderLayout.SOUTH);
+        return watchpointPanel;
+    }
+
+    private void addWatchpoint() {
+        if (cpu == null) return;
+        int type = (watchpointReadCheckBox.isSelected() ? Watchpoints.READ : 0)
+                | (watchpointWriteCheckBox.isSelected() ? Watchpoints.WRITE : 0);
+        if (type == 0) return;
+        String[] bounds = watchpointRangeField.getText().trim().split("-");
+        try {
+            int start = Integer.parseInt(bounds[0].trim(), 16);
+            int end = bounds.length > 1 ? Integer.parseInt(bounds[1].trim(), 16) : start;
+            cpu.getWatchpoints().add(start, end, type);
+            watchpointRangeField.setText("");
+            updateWatchpointRanges();
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(frame, "Invalid watchpoint range: " + watchpointRangeField.getText());
+        }
+    }
+
+    private void updateWatchpointRanges() {
+        StringBuilder text = new StringBuilder(" ");
+        for (Watchpoints.Range range : cpu.getWatchpoints().getRanges()) {
+            text.append(range).append("  ");
+        }
+        watchpointRangesLabel.setText(text.toString());
+    }
+
+    //Rebuild the hit list only when the hit count moved
+    private void refreshWatchpointHits() {
+        Watchpoints watchpoints = cpu.getWatchpoints();
+        long hits = watchpoints.getHitCount();
+        if (hits == shownWatchpointHits) return;
+        shownWatchpointHits = hits;
+        watchpointHitListModel.clear();
+        for (Watchpoints.Hit hit : watchpoints.getHits()) {
+            watchpointHitListModel.add(0, hit.toString());
+        }
+    }
+
+    //Poll the CPU and update only the labels whose values changed since the last refresh
+    private void refresh() {
+        if (cpu == null || cpu.getRegisters() == null) return;
+        cpu.captureState(state);
+        for (int i = 0; i < 16; i++) {
+            int value = state.getVariableRegister(i);
+            if (value != shownValues[i]) {
+                shownValues[i] = value;
+                registerViewerLabels[i].setText(String.format("V%01X: %02X", i, value));
+            }
+        }
+        if (state.getIndexRegister() != shownValues[SHOWN_I]) {
+            shownValues[SHOWN_I] = state.getIndexRegister();
+            registerILabel.setText(String.format("I: %04X", state.getIndexRegister()));
+        }
+        if (state.getDelayTimer() != shownValues[SHOWN_DT]) {
+            shownValues[SHOWN_DT] = state.getDelayTimer();
+            registerDTLabel.setText(String.format("DT: %02X", state.getDelayTimer()));
+        }
+        if (state.getSoundTimer() != shownValues[SHOWN_ST]) {
+            shownValues[SHOWN_ST] = state.getSoundTimer();
+            registerSTLabel.setText(String.format("ST: %02X", state.getSoundTimer()));
+        }
+        if (state.getProgramCounter() != shownValues[SHOWN_PC]) {
+            int previousPC = shownValues[SHOWN_PC];
+            shownValues[SHOWN_PC] = state.getProgramCounter();
+            registerPCLabel.setText(String.format("PC: %04X", state.getProgramCounter()));
+            //Only the rows the highlight moved off and onto need repainting
+            if (instructionTableModel != null) {
+                instructionTableModel.fireAddressUpdated(previousPC);
+                instructionTableModel.fireAddressUpdated(state.getProgramCounter());
+            }
+        }
+        for (int i = 0; i < 16; i++) {
+            int address = state.getStackEntry(i);
+            if (address != shownValues[SHOWN_STACK + i]) {
+                shownValues[SHOWN_STACK + i] = address;
+                String indexStr = String.format("%01X", i);
+                stackViewerLabels[i].setText(address > -1
+                        ? indexStr + ": " + String.format("%04X", address & 0xFFFF)
+                        : indexStr + ": ");
+            }
+        }
+        refreshWatchpointHits();
+        memoryViewer.refresh();
+        if (profiler != null && instructionTableModel != null && --heatRefreshCountdown <= 0) {
+            heatRefreshCountdown = HEAT_REFRESH_INTERVAL;
+            instructionTableModel.refreshHeat();
+        }
+    }
+
+    //Switch profiling on or off at the next frame boundary, counts carry on from where they were
+    private void setProfiling(boolean enabled) {
+        if (cpu == null) return;
+        if (profiler == null) {
+            profiler = new Profiler();
+            if (instructionTableModel != null) instructionTableModel.setProfiler(profiler);
+            hotSpotsButton.setEnabled(true);
+        }
+        Profiler active = enabled ? profiler : null;
+        CPU target = cpu;
+        mochaChipGUI.getEmulator().execute(() -> target.setProfiler(active));
+    }
+
+    public void updateMemoryMap() {
+        displayMemory();
+    }
+
+    //Initializes the instruction table
+    public void initInstructionTable() {
+        if (instructionList != null) {
+            instructionTableModel = new InstructionTableModel(instructionList, cpu.getBreakpoints());
+            instructionViewerTable.setModel(instructionTableModel);
+
+            //Set column properties, one renderer instance is shared by all text columns
+            HighlightedCellRenderer highlightedCellRenderer = new HighlightedCellRenderer(this);
+            instructionViewerTable.getColumnModel().getColumn(InstructionTableModel.BREAKPOINT_COLUMN)
+                    .setCellRenderer(new BreakpointCellRenderer());
+            instructionViewerTable.getColumnModel().getColumn(InstructionTableModel.ADDRESS_COLUMN)
+                    .setCellRenderer(highlightedCellRenderer);
+            instructionViewerTable.getColumnModel().getColumn(InstructionTableModel.OPCODE_COLUMN)
+                    .setCellRenderer(highlightedCellRenderer);
+            instructionViewerTable.getColumnModel().getColumn(InstructionTableModel.DESCRIPTION_COLUMN)
+                    .setCellRenderer(highlightedCellRenderer);
+            instructionViewerTable.getColumnModel().getColumn(InstructionTableModel.HEAT_COLUMN)
+                    .setCellRenderer(new HeatCellRenderer(bgColor));
+            instructionViewerTable.getColumnModel().getColumn(InstructionTableModel.HEAT_COLUMN)
+                    .setPreferredWidth(60);
+            instructionTableModel.setProfiler(profiler);
+
+            instructionViewerTable.getColumnModel().getColumn(0).setPreferredWidth(30);
+            instructionViewerTable.getColumnModel().getColumn(0).setMaxWidth(30);
+            instructionViewerTable.getColumnModel().getColumn(0).setResizable(false);
+
+        }
+
+    }
+
+    public void setInstructionList(List<Instruction> instructionList) {
+        this.instructionList = instructionList;
+    }
+
+    //Analysis of the loaded ROM, shared with the hot spot view so it isn't redone on every refresh
+    public void setControlFlowGraph(ControlFlowGraph controlFlowGraph) {
+        this.controlFlowGraph = controlFlowGraph;
+    }
+
+    public ControlFlowGraph getControlFlowGraph() {
+        return controlFlowGraph;
+    }
+
+    public JFrame getFrame() {
+        return frame;
+    }
+
+    //Point the memory viewer at the loaded program, it keeps itself up to date from then on
+    private void displayMemory() {
+        SwingUtilities.invokeLater(() -> {
+            memoryViewer.setMemory(cpu.getMemory());
+            memoryViewer.scrollToAddress(Memory.PROGRAM_START_ADDRESS);
+        });
+    }
+
+    public void setCpu(CPU cpu) {
+        this.cpu = cpu;
+        cpu.getWatchpoints().setPauseOnHit(watchpointPauseCheckBox.isSelected());
+        shownWatchpointHits = -1;
+        updateWatchpointRanges();
+    }
+
+    //Toggle step mode when checkbox is clicked
+    public void toggleStepMode() {
+        stepMode = !stepMode;
+        if (!stepMode) {
+            instructionViewerTable.setRowSelectionAllowed(true);
+            stepModeStepThroughButton.setEnabled(false);
+            mochaChipGUI.getEmulator().resume();
+        } else {
+            stepModeStepThroughButton.setEnabled(true);
+            instructionViewerTable.setRowSelectionAllowed(false);
+            mochaChipGUI.getEmulator().pause();
+        }
+
+    }
+
+    //Cycle one instruction at a time
+    //The step runs on the emulation thread, the refresh is queued behind it
+    private void stepThrough() {
+        Emulator emulator = mochaChipGUI.getEmulator();
+        emulator.step(1);
+        emulator.execute(() -> SwingUtilities.invokeLater(() -> {
+            refresh();
+            scrollToAddress(getHighlightedAddress());
+        }));
+    }
+
+    //Called from the emulation thread when it stops on a breakpoint
+    @Override
+    public void breakpointHit(int address) {
+        stepMode = true;
+        SwingUtilities.invokeLater(() -> {
+            stepModeCheckBox.setSelected(true);
+            stepModeStepThroughButton.setEnabled(true);
+            instructionViewerTable.setRowSelectionAllowed(false);
+            refresh();
+            scrollToAddress(address);
+        });
+    }
+
+    //Called from the emulation thread when the program crashes the machine, which is then paused at address
+    @Override
+    public void machineFault(int address, RuntimeException error) {
+        breakpointHit(address);
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(mochaChipGUI.getFrame(),
+                String.format("Emulation stopped at 0x%03X: %s", address, error.getMessage()), "Error",
+                JOptionPane.ERROR_MESSAGE));
+    }
+
+    void scrollToAddress(int address) {
+        if (instructionTableModel == null) return;
+        int rowIndex = instructionTableModel.getRow(address);
+        if (rowIndex >= 0) {
+            //Get rect of the target cell and scroll to it
+            Rectangle rect = instructionViewerTable.getCellRect(rowIndex, 1, true);
+            instructionViewerTable.scrollRectToVisible(rect);
+        }
+    }
+
+
+    public boolean isStepMode() {
+        return stepMode;
+    }
+
+    public void setStepMode(boolean val) {
+        this.stepMode = val;
+        stepModeCheckBox.setSelected(val);
+        if (val) mochaChipGUI.getEmulator().pause();
+        stepModeStepThroughButton.setEnabled(true);
+    }
+
+    //Address of the next instruction to run, as of the last refresh
+    public int getHighlightedAddress() {
+        return shownValues[SHOWN_PC];
+    }
+}
@@ -0,0 +1,40 @@
+package mochachip.gui;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+
+//Renders the instruction table's heat column, shading each row from the background to red by execution count
+//Counts are scaled logarithmically, otherwise one tight loop would leave every other row looking cold
+public class HeatCellRenderer extends DefaultTableCellRenderer {
+    private static final Color HOT_COLOR = new Color(220, 40, 20);
+    private final Color coldColor;
+
+    public HeatCellRenderer(Color coldColor) {
+        this.coldColor = coldColor;
+        setHorizontalAlignment(SwingConstants.RIGHT);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
+                                                   int row, int column) {
+        super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+        int hits = value instanceof Integer ? (Integer) value : 0;
+        int maxHits = ((InstructionTableModel) table.getModel()).getMaxHits();
+        if (hits == 0 || maxHits == 0) {
+            setText(hits == 0 ? "" : Integer.toString(hits));
+            setBackground(coldColor);
+        } else {
+            float heat = (float) (Math.log1p(hits) / Math.log1p(maxHits));
+            setBackground(blend(coldColor, HOT_COLOR, heat));
+        }
+        return this;
+    }
+
+    private static Color blend(Color from, Color to, float amount) {
+        return new Color(
+                Math.round(from.getRed() + (to.getRed() - from.getRed()) * amount),
+                Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * amount),
+                Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * amount));
+    }
+}
@@ -5,8 +5,10 @@ import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 
 //Custom table cell renderer to highlight the next instruction to be executed
+//One instance is shared by every text column, and rows are matched by their integer address
 public class HighlightedCellRenderer extends DefaultTableCellRenderer {
-    private DebugGUI debugGUI;
+    private static final Color HIGHLIGHT_COLOR = new Color(255, 255, 0, 75);
+    private final DebugGUI debugGUI;
 
     public HighlightedCellRenderer(DebugGUI debugGUI) {
         this.debugGUI = debugGUI;
@@ -16,15 +18,12 @@ public class HighlightedCellRenderer extends DefaultTableCellRenderer {
     public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
                                                    int row, int column) {
         Component cellComponent = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-        if (debugGUI != null && debugGUI.getCurrentInstruction() != null) {
-            int currentInstructionAddress = debugGUI.getCurrentInstruction().getAddress();
-            int cellAddress = Integer.parseInt((String) table.getValueAt(row, 1), 16);
-            ///If currentInstruction's address is equal to this cell's address column value, highlight it yellow
-            if (cellAddress == currentInstructionAddress && column != 0) {
-                cellComponent.setBackground(new Color(255,255,0,75));
-            } else {
-                cellComponent.setBackground(debugGUI.bgColor);
-            }
+        InstructionTableModel model = (InstructionTableModel) table.getModel();
+        //If this row holds the next instruction to run, highlight it yellow
+        if (model.getAddress(row) == debugGUI.getHighlightedAddress()) {
+            cellComponent.setBackground(HIGHLIGHT_COLOR);
+        } else {
+            cellComponent.setBackground(debugGUI.bgColor);
         }
         return cellComponent;
     }
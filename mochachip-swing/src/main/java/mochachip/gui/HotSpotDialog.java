@@ -0,0 +1,170 @@
+package mochachip.gui;
+
+import mochachip.CPU;
+import mochachip.ControlFlowGraph;
+import mochachip.Emulator;
+import mochachip.Profiler;
+import mochachip.Rom;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+//Top-N hottest addresses and basic blocks from the profiler, with export to a folded stack file for flame graphs
+//Double-click a row to find it in the debugger's instruction listing
+public class HotSpotDialog extends JDialog {
+    private static final int TOP_N = 100;
+    private final DebugGUI debugGUI;
+    private final Emulator emulator;
+    private final CPU cpu;
+    private final Profiler profiler;
+    private final HotSpotTableModel addressModel = new HotSpotTableModel("Address");
+    private final HotSpotTableModel blockModel = new HotSpotTableModel("Block");
+    private final JLabel totalLabel = new JLabel(" ");
+
+    public HotSpotDialog(JFrame owner, DebugGUI debugGUI, Emulator emulator, CPU cpu, Profiler profiler) {
+        super(owner, "Hot Spots", false);
+        this.debugGUI = debugGUI;
+        this.emulator = emulator;
+        this.cpu = cpu;
+        this.profiler = profiler;
+        init();
+        refresh();
+    }
+
+    private void init() {
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Addresses", new JScrollPane(createTable(addressModel)));
+        tabs.addTab("Basic blocks", new JScrollPane(createTable(blockModel)));
+
+        JButton refreshButton = new JButton("Refresh");
+        refreshButton.addActionListener(e -> refresh());
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(e -> emulator.execute(() -> {
+            profiler.reset();
+            SwingUtilities.invokeLater(this::refresh);
+        }));
+        JButton exportButton = new JButton("Export folded stacks...");
+        exportButton.addActionListener(e -> exportFolded());
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttons.add(refreshButton);
+        buttons.add(resetButton);
+        buttons.add(exportButton);
+        buttons.add(totalLabel);
+
+        setLayout(new BorderLayout());
+        add(tabs, BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+        setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        setPreferredSize(new Dimension(520, 480));
+        pack();
+        setLocationRelativeTo(getOwner());
+    }
+
+    private JTable createTable(HotSpotTableModel model) {
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = table.getSelectedRow();
+                if (e.getClickCount() == 2 && row >= 0) {
+                    debugGUI.scrollToAddress(model.getSpot(table.convertRowIndexToModel(row)).getStartAddress());
+                }
+            }
+        });
+        return table;
+    }
+
+    private void refresh() {
+        long total = profiler.getTotal();
+        addressModel.setSpots(profiler.getHotAddresses(TOP_N), total);
+        //Blocks come from the analysis done when the ROM was loaded, so code rewritten since then keeps its old blocks
+        ControlFlowGraph graph = debugGUI.getControlFlowGraph();
+        blockModel.setSpots(graph == null ? List.of() : profiler.getHotBlocks(graph, TOP_N), total);
+        totalLabel.setText(String.format("%,d instructions profiled", total));
+    }
+
+    private void exportFolded() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setSelectedFile(new File("profile.folded"));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = fileChooser.getSelectedFile();
+        Rom rom = cpu.getMemory().getLoadedRom();
+        String rootName = rom == null ? "chip8" : rom.getName();
+        //The sample table belongs to the emulation thread, so it is copied between frames and written out here
+        emulator.execute(() -> {
+            Profiler.FoldedStacks stacks = profiler.snapshotFolded(cpu.getMemory(), rootName);
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    stacks.write(file.toPath());
+                } catch (IOException e) {
+                    JOptionPane.showMessageDialog(this, "Could not write profile: " + e.getMessage(), "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        });
+    }
+
+    private static class HotSpotTableModel extends AbstractTableModel {
+        private final String[] columnNames;
+        private List<Profiler.HotSpot> spots = List.of();
+        private long total;
+
+        HotSpotTableModel(String locationName) {
+            columnNames = new String[]{locationName, "Instructions", "Share %"};
+        }
+
+        void setSpots(List<Profiler.HotSpot> spots, long total) {
+            this.spots = spots;
+            this.total = total;
+            fireTableDataChanged();
+        }
+
+        Profiler.HotSpot getSpot(int row) {
+            return spots.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return spots.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return switch (column) {
+                case 1 -> Long.class;
+                case 2 -> Double.class;
+                default -> String.class;
+            };
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Profiler.HotSpot spot = spots.get(row);
+            return switch (column) {
+                case 0 -> spot.getEndAddress() - spot.getStartAddress() <= 2
+                        ? String.format("%03X", spot.getStartAddress())
+                        : String.format("%03X-%03X", spot.getStartAddress(), spot.getEndAddress() - 2);
+                case 1 -> spot.getCount();
+                default -> total == 0 ? 0.0 : Math.round(spot.getCount() * 1000.0 / total) / 10.0;
+            };
+        }
+    }
+}
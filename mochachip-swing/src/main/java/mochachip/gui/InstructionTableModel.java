@@ -0,0 +1,125 @@
+package mochachip.gui;
+
+import mochachip.Breakpoints;
+import mochachip.Instruction;
+import mochachip.Memory;
+import mochachip.Profiler;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.List;
+
+//Table model for the debugger's instruction listing, backed by primitive arrays
+//rowOfAddress maps every address straight to its row so stepping and scrolling never search the listing
+public class InstructionTableModel extends AbstractTableModel {
+    public static final int BREAKPOINT_COLUMN = 0;
+    public static final int ADDRESS_COLUMN = 1;
+    public static final int OPCODE_COLUMN = 2;
+    public static final int DESCRIPTION_COLUMN = 3;
+    public static final int HEAT_COLUMN = 4;
+    private static final String[] COLUMN_NAMES = {"BRK", "Address", "Instruction", "Description", "Heat"};
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final Breakpoints breakpoints;
+    private final int[] addresses;
+    private final int[] opcodes;
+    private final String[] descriptions;
+    private final int[] rowOfAddress = new int[Memory.MEMORY_SIZE];
+    private Profiler profiler;
+    //Highest execution count among the listed instructions, as of the last refreshHeat
+    private int maxHits;
+
+    public InstructionTableModel(List<Instruction> instructions, Breakpoints breakpoints) {
+        this.breakpoints = breakpoints;
+        int rows = instructions.size();
+        addresses = new int[rows];
+        opcodes = new int[rows];
+        descriptions = new String[rows];
+        Arrays.fill(rowOfAddress, -1);
+        for (int row = 0; row < rows; row++) {
+            Instruction instruction = instructions.get(row);
+            addresses[row] = instruction.getAddress();
+            opcodes[row] = instruction.getByteCode();
+            descriptions[row] = instruction.getDescription();
+            rowOfAddress[instruction.getAddress()] = row;
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return addresses.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return switch (column) {
+            case BREAKPOINT_COLUMN -> Boolean.class;
+            case HEAT_COLUMN -> Integer.class;
+            default -> String.class;
+        };
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return switch (column) {
+            //Read from the CPU so the column always matches the breakpoints actually set
+            case BREAKPOINT_COLUMN -> breakpoints.isSet(addresses[row]);
+            case ADDRESS_COLUMN -> toHex(addresses[row]);
+            case OPCODE_COLUMN -> toHex(opcodes[row]);
+            case HEAT_COLUMN -> profiler == null ? null : profiler.getHits(addresses[row]);
+            default -> descriptions[row];
+        };
+    }
+
+    //Show execution counts from profiler in the heat column, or nothing if null
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+        refreshHeat();
+    }
+
+    //Pick up new counts and repaint the heat column
+    public void refreshHeat() {
+        maxHits = 0;
+        if (profiler != null) {
+            for (int address : addresses) maxHits = Math.max(maxHits, profiler.getHits(address));
+        }
+        if (addresses.length > 0) fireTableChanged(new TableModelEvent(this, 0, addresses.length - 1, HEAT_COLUMN));
+    }
+
+    public int getMaxHits() {
+        return maxHits;
+    }
+
+    public int getAddress(int row) {
+        return addresses[row];
+    }
+
+    //Row holding the instruction at address, or -1 if it isn't in the listing
+    public int getRow(int address) {
+        return address >= 0 && address < rowOfAddress.length ? rowOfAddress[address] : -1;
+    }
+
+    //Repaint just the row at address, e.g. when the PC moves onto or off it
+    public void fireAddressUpdated(int address) {
+        int row = getRow(address);
+        if (row >= 0) fireTableRowsUpdated(row, row);
+    }
+
+    private static String toHex(int value) {
+        return new String(new char[]{
+                HEX_DIGITS[(value >> 12) & 0xF], HEX_DIGITS[(value >> 8) & 0xF],
+                HEX_DIGITS[(value >> 4) & 0xF], HEX_DIGITS[value & 0xF]
+        });
+    }
+}
@@ -0,0 +1,180 @@
+package mochachip.gui;
+
+import mochachip.RomLibrary;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+//Browse and search the ROM library, double-click a ROM to load it
+//Scans run on a background worker, searching only filters the in-memory index
+public class LibraryBrowser extends JDialog {
+    private final MochaChipGUI mochaChipGUI;
+    private final RomLibrary library = RomLibrary.getDefault();
+    private final LibraryTableModel tableModel = new LibraryTableModel();
+    private final JTable table = new JTable(tableModel);
+    private final JTextField searchField = new JTextField(24);
+    private final JLabel statusLabel = new JLabel(" ");
+    private final JButton addFolderButton = new JButton("Add folder...");
+    private final JButton rescanButton = new JButton("Rescan");
+
+    public LibraryBrowser(JFrame owner, MochaChipGUI mochaChipGUI) {
+        super(owner, "ROM Library", false);
+        this.mochaChipGUI = mochaChipGUI;
+        init();
+        library.load();
+        applySearch();
+    }
+
+    private void init() {
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        addFolderButton.addActionListener(e -> addFolder());
+        rescanButton.addActionListener(e -> scan());
+        toolbar.add(addFolderButton);
+        toolbar.add(rescanButton);
+        toolbar.add(new JLabel("Search:"));
+        toolbar.add(searchField);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                applySearch();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                applySearch();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                applySearch();
+            }
+        });
+
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(1).setPreferredWidth(90);
+        table.getColumnModel().getColumn(1).setMaxWidth(120);
+        table.getColumnModel().getColumn(2).setMaxWidth(80);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) loadSelected();
+            }
+        });
+
+        setLayout(new BorderLayout());
+        add(toolbar, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+        setPreferredSize(new Dimension(800, 500));
+        pack();
+        setLocationRelativeTo(getOwner());
+    }
+
+    private void addFolder() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File folder = chooser.getSelectedFile();
+            library.addRoot(folder.toPath());
+            scan();
+        }
+    }
+
+    private void scan() {
+        addFolderButton.setEnabled(false);
+        rescanButton.setEnabled(false);
+        statusLabel.setText("Scanning...");
+        long start = System.nanoTime();
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                library.scan();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                addFolderButton.setEnabled(true);
+                rescanButton.setEnabled(true);
+                try {
+                    get();
+                    applySearch();
+                    statusLabel.setText(String.format("Indexed %d ROMs in %.1f s", library.getEntries().size(),
+                            (System.nanoTime() - start) / 1_000_000_000.0));
+                } catch (Exception e) {
+                    statusLabel.setText("Scan failed: " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void applySearch() {
+        tableModel.setEntries(library.search(searchField.getText()));
+        statusLabel.setText(tableModel.getRowCount() + " of " + library.getEntries().size() + " ROMs");
+    }
+
+    private void loadSelected() {
+        int row = table.getSelectedRow();
+        if (row < 0) return;
+        RomLibrary.Entry entry = tableModel.getEntry(row);
+        try {
+            mochaChipGUI.loadRom(entry.load());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Failed to load " + entry.getLocation() + ": " + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private static class LibraryTableModel extends AbstractTableModel {
+        private static final String[] COLUMN_NAMES = {"Name", "Platform", "Size", "SHA-1"};
+        private List<RomLibrary.Entry> entries = List.of();
+
+        void setEntries(List<RomLibrary.Entry> entries) {
+            this.entries = entries;
+            fireTableDataChanged();
+        }
+
+        RomLibrary.Entry getEntry(int row) {
+            return entries.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return entries.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMN_NAMES.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMN_NAMES[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 2 ? Integer.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            RomLibrary.Entry entry = entries.get(row);
+            return switch (column) {
+                case 0 -> entry.getName();
+                case 1 -> entry.getPlatform().getDisplayName();
+                case 2 -> entry.getSize();
+                default -> entry.getHash();
+            };
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package mochachip.gui;
+
+import mochachip.Memory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+
+//Live hex view of CHIP-8 memory that only paints the rows inside the visible area
+//Each refresh reads back just the 16-byte lines Memory marked dirty, compares them with what is on screen
+//and repaints the lines that actually changed, briefly highlighting the bytes that were written
+public class MemoryViewer extends JComponent implements Scrollable {
+    private static final int LINES = Memory.MEMORY_SIZE / Memory.LINE_SIZE;
+    //Number of refreshes a written byte stays highlighted
+    private static final int HIGHLIGHT_TICKS = 15;
+    private static final int PADDING = 4;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private Memory memory;
+    //Bytes as currently painted, owned by the EDT
+    private final byte[] shown = new byte[Memory.MEMORY_SIZE];
+    //Remaining highlight ticks for each byte, and a bit per line that still has highlighted bytes
+    private final byte[] highlight = new byte[Memory.MEMORY_SIZE];
+    private final long[] highlightedLines = new long[Memory.DIRTY_WORDS];
+    private final long[] dirtyLines = new long[Memory.DIRTY_WORDS];
+    //"$0000: " plus 16 bytes of "00 "
+    private final char[] lineChars = new char[7 + Memory.LINE_SIZE * 3];
+    private final Color highlightColor = new Color(255, 255, 0, 90);
+    private int lineHeight;
+    private int charWidth;
+    private int ascent;
+
+    public MemoryViewer(Font font, Color background, Color foreground) {
+        setFont(font);
+        setBackground(background);
+        setForeground(foreground);
+        setOpaque(true);
+        FontMetrics metrics = getFontMetrics(font);
+        lineHeight = metrics.getHeight();
+        charWidth = metrics.charWidth('0');
+        ascent = metrics.getAscent();
+        setPreferredSize(new Dimension(lineChars.length * charWidth + PADDING * 2, LINES * lineHeight));
+    }
+
+    public void setMemory(Memory memory) {
+        this.memory = memory;
+        if (memory != null) {
+            //Throw away any pending dirty bits and show the whole current contents
+            memory.takeDirtyLines(dirtyLines);
+            System.arraycopy(memory.getMemoryArray(), 0, shown, 0, Memory.MEMORY_SIZE);
+        }
+        Arrays.fill(highlight, (byte) 0);
+        Arrays.fill(highlightedLines, 0);
+        repaint();
+    }
+
+    //Called at the debugger's refresh rate on the EDT
+    public void refresh() {
+        if (memory == null) return;
+        byte[] ram = memory.getMemoryArray();
+        memory.takeDirtyLines(dirtyLines);
+        for (int word = 0; word < Memory.DIRTY_WORDS; word++) {
+            //Fade out older highlights first so the lines written this tick start fresh
+            long fading = highlightedLines[word];
+            while (fading != 0) {
+                int line = word * 64 + Long.numberOfTrailingZeros(fading);
+                fading &= fading - 1;
+                if (!fadeLine(line)) highlightedLines[word] &= ~(1L << line);
+                repaintLine(line);
+            }
+            long dirty = dirtyLines[word];
+            while (dirty != 0) {
+                int line = word * 64 + Long.numberOfTrailingZeros(dirty);
+                dirty &= dirty - 1;
+                if (updateLine(ram, line)) {
+                    highlightedLines[word] |= 1L << line;
+                    repaintLine(line);
+                }
+            }
+        }
+    }
+
+    //Returns true if any byte on the line changed
+    private boolean updateLine(byte[] ram, int line) {
+        boolean changed = false;
+        int start = line * Memory.LINE_SIZE;
+        for (int address = start; address < start + Memory.LINE_SIZE; address++) {
+            if (ram[address] != shown[address]) {
+                shown[address] = ram[address];
+                highlight[address] = HIGHLIGHT_TICKS;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    //Returns true if the line still has highlighted bytes
+    private boolean fadeLine(int line) {
+        boolean active = false;
+        int start = line * Memory.LINE_SIZE;
+        for (int address = start; address < start + Memory.LINE_SIZE; address++) {
+            if (highlight[address] > 0 && --highlight[address] > 0) active = true;
+        }
+        return active;
+    }
+
+    private void repaintLine(int line) {
+        repaint(0, line * lineHeight, getWidth(), lineHeight);
+    }
+
+    //Scroll so the line holding address is in view
+    public void scrollToAddress(int address) {
+        int line = address / Memory.LINE_SIZE;
+        scrollRectToVisible(new Rectangle(0, line * lineHeight, 1, lineHeight));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g.setFont(getFont());
+        int firstLine = Math.max(0, clip.y / lineHeight);
+        int lastLine = Math.min(LINES - 1, (clip.y + clip.height) / lineHeight);
+        int bytesX = PADDING + 7 * charWidth;
+        for (int line = firstLine; line <= lastLine; line++) {
+            int y = line * lineHeight;
+            int start = line * Memory.LINE_SIZE;
+            //Highlight boxes behind recently written bytes
+            g.setColor(highlightColor);
+            for (int i = 0; i < Memory.LINE_SIZE; i++) {
+                if (highlight[start + i] > 0) g.fillRect(bytesX + i * 3 * charWidth, y, charWidth * 2, lineHeight);
+            }
+            formatLine(start);
+            g.setColor(getForeground());
+            g.drawChars(lineChars, 0, lineChars.length, PADDING, y + ascent);
+        }
+    }
+
+    private void formatLine(int start) {
+        lineChars[0] = '$';
+        lineChars[1] = HEX_DIGITS[(start >> 12) & 0xF];
+        lineChars[2] = HEX_DIGITS[(start >> 8) & 0xF];
+        lineChars[3] = HEX_DIGITS[(start >> 4) & 0xF];
+        lineChars[4] = HEX_DIGITS[start & 0xF];
+        lineChars[5] = ':';
+        lineChars[6] = ' ';
+        for (int i = 0; i < Memory.LINE_SIZE; i++) {
+            int value = shown[start + i] & 0xFF;
+            int column = 7 + i * 3;
+            lineChars[column] = HEX_DIGITS[value >> 4];
+            lineChars[column + 1] = HEX_DIGITS[value & 0xF];
+            lineChars[column + 2] = ' ';
+        }
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(getPreferredSize().width, lineHeight * 32);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? lineHeight : charWidth;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL
+                ? Math.max(lineHeight, visibleRect.height - lineHeight) : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
@@ -0,0 +1,514 @@
+package mochachip.gui;
+
+import mochachip.*;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Properties;
+
+public class MochaChipGUI {
+    static final public String title = "MochaChip";
+    private final int MIN_SPEED = 100;
+    private final int MAX_SPEED = 1000;
+    private final int DEFAULT_SPEED = 500;
+    private int currentSpeed;
+    private String version;
+    private String lastPathUsed;
+    private Input input;
+    private Display display;
+    private CPU cpu;
+    //Runs every machine loaded in this window, created once and never replaced
+    private final Emulator emulator = new Emulator();
+    private JFrame frame;
+    private JMenuItem pauseItem;
+    private JMenuItem stopItem;
+    private JLabel speedLabel;
+    private JSlider speedSlider;
+    private DebugGUI debugGUI;
+    private ExecutionEngine executionEngine;
+    //Analysis results of ROMs seen before, so reloading one skips disassembly
+    private final AnalysisCache analysisCache = AnalysisCache.getDefault();
+    private LibraryBrowser libraryBrowser;
+    private StatsDialog statsDialog;
+    private boolean rewindEnabled = true;
+    private boolean idleSkipping = true;
+    //Input log being recorded, applied to the CPU on the next ROM load
+    private InputLog recording;
+    private JMenuItem recordItem;
+    private JMenuItem stopRecordingItem;
+    private JMenuItem quickLoadItem;
+    private JCheckBoxMenuItem rewindItem;
+    private JCheckBoxMenuItem idleSkipItem;
+
+
+    public MochaChipGUI(Input input, Display display, CPU cpu) {
+        this(input, display, cpu, ExecutionEngine.INTERPRETER);
+    }
+
+    public MochaChipGUI(Input input, Display display, CPU cpu, ExecutionEngine executionEngine) {
+        this.display = display;
+        this.input = input;
+        this.cpu = cpu;
+        this.executionEngine = executionEngine;
+        frame = new JFrame();
+        version = getVersion();
+        init();
+        this.debugGUI = new DebugGUI(cpu, this);
+    }
+
+    public void init() {
+        frame.setTitle(title + " - " + version);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setResizable(false);
+        frame.add(display, BorderLayout.CENTER);
+        //Rewind plays while the key is held
+        display.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_BACK_SPACE && cpu != null && recording == null) {
+                    cpu.setRewinding(true);
+                }
+            }
+
+            @Override
+            public void keyReleased(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_BACK_SPACE && cpu != null) cpu.setRewinding(false);
+            }
+        });
+        initMenu();
+        frame.pack();
+        currentSpeed = DEFAULT_SPEED;
+    }
+
+
+    private void initMenu() {
+        JMenuBar menuBar = new JMenuBar();
+        ArrayList<JMenu> menus = new ArrayList<>();
+
+        JMenu fileMenu = new JMenu("File");
+        JMenu emulationMenu = new JMenu("Emulation");
+        JMenu displayMenu = new JMenu("Display");
+        //JMenu settingsMenu = new JMenu("Settings");
+        JMenu debuggerMenu = new JMenu("Debugger");
+
+        //File
+        JMenuItem loadRomItem = new JMenuItem("Load CH8 file");
+        loadRomItem.addActionListener(e -> loadRom());
+        JMenuItem libraryItem = new JMenuItem("ROM Library...");
+        libraryItem.addActionListener(e -> openLibrary());
+        JMenuItem exitItem = new JMenuItem("Exit");
+        exitItem.addActionListener(e -> quit());
+
+        //Emulation
+        pauseItem = new JMenuItem("Pause/Resume Emulation");
+        pauseItem.setEnabled(false);
+        pauseItem.addActionListener(e -> pauseEmulation());
+        stopItem = new JMenuItem("Stop Emulation");
+        stopItem.setEnabled(false);
+        stopItem.addActionListener(e -> stopEmulation());
+        JMenuItem quickSaveItem = new JMenuItem("Quick Save");
+        quickSaveItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F5, 0));
+        quickSaveItem.addActionListener(e -> quickSave());
+        rewindItem = new JCheckBoxMenuItem("Rewind (hold Backspace)", rewindEnabled);
+        rewindItem.addActionListener(e -> setRewindEnabled(rewindItem.isSelected()));
+        idleSkipItem = new JCheckBoxMenuItem("Skip Idle Loops", idleSkipping);
+        idleSkipItem.addActionListener(e -> setIdleSkipping(idleSkipItem.isSelected()));
+        recordItem = new JMenuItem("Record Input (restarts ROM)");
+        recordItem.addActionListener(e -> startRecording());
+        stopRecordingItem = new JMenuItem("Stop Recording...");
+        stopRecordingItem.setEnabled(false);
+        stopRecordingItem.addActionListener(e -> stopRecording());
+        quickLoadItem = new JMenuItem("Quick Load");
+        quickLoadItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F8, 0));
+        quickLoadItem.addActionListener(e -> quickLoad());
+        JMenu speedMenu = new JMenu("Speed");
+        speedMenu.setEnabled(true);
+        JPanel speedPanel = new JPanel();
+        speedPanel.setLayout(new BoxLayout(speedPanel, BoxLayout.Y_AXIS));
+        speedSlider = new JSlider(JSlider.HORIZONTAL, MIN_SPEED, MAX_SPEED, DEFAULT_SPEED);
+        speedPanel.add(speedSlider);
+        speedSlider.setMajorTickSpacing(100);
+        speedSlider.setSnapToTicks(true);
+        speedSlider.setValue(DEFAULT_SPEED);
+        speedSlider.setEnabled(true);
+        speedSlider.addChangeListener(l -> adjustSpeed());
+        speedLabel = new JLabel("Cycles per second: " + DEFAULT_SPEED);
+        speedPanel.add(speedLabel);
+        // optionsItem = new JMenuItem("Options");
+
+        //Engine, applied when the next ROM is loaded
+        JMenu engineMenu = new JMenu("Engine");
+        ButtonGroup engineGroup = new ButtonGroup();
+        JRadioButtonMenuItem interpreterItem = new JRadioButtonMenuItem("Interpreter",
+                executionEngine == ExecutionEngine.INTERPRETER);
+        interpreterItem.addActionListener(e -> executionEngine = ExecutionEngine.INTERPRETER);
+        JRadioButtonMenuItem jitItem = new JRadioButtonMenuItem("Block JIT",
+                executionEngine == ExecutionEngine.BLOCK_JIT);
+        jitItem.addActionListener(e -> executionEngine = ExecutionEngine.BLOCK_JIT);
+        engineGroup.add(interpreterItem);
+        engineGroup.add(jitItem);
+        engineMenu.add(interpreterItem);
+        engineMenu.add(jitItem);
+        engineMenu.setToolTipText("Takes effect when the next ROM is loaded");
+
+
+        //Size
+        JMenu windowSize = new JMenu("Size");
+        JMenuItem windowSize1x = new JMenuItem("1");
+        windowSize1x.addActionListener(e -> adjustSize(12));
+        JMenuItem windowSize2x = new JMenuItem("2");
+        windowSize2x.addActionListener(e -> adjustSize(16));
+        JMenuItem windowSize3x = new JMenuItem("3");
+        windowSize3x.addActionListener(e -> adjustSize(22));
+        JMenuItem windowSize4x = new JMenuItem("4");
+        windowSize4x.addActionListener(e -> adjustSize(28));
+
+        //Color
+        JMenu colorMenu = new JMenu("Color");
+        JMenuItem colorMono = new JMenuItem("Monochrome");
+        JMenuItem colorSoftMono = new JMenuItem("Soft Monochrome");
+        JMenuItem colorIce = new JMenuItem("Ice");
+        JMenuItem colorOlive = new JMenuItem("Olive");
+        JMenuItem colorLava = new JMenuItem("Lava");
+        JMenuItem colorGrape = new JMenuItem("Grape");
+        JMenuItem colorDesert = new JMenuItem("Desert");
+        JMenuItem colorPastel = new JMenuItem("Pastel");
+
+        //Settings
+        //JMenuItem settingsItem = new JMenuItem("Open settings");
+
+        //Debugger
+        JMenuItem debuggerItem = new JMenuItem("Open Debugger");
+        debuggerItem.addActionListener(e -> openDebugger());
+        JMenuItem statsItem = new JMenuItem("Execution Stats...");
+        statsItem.addActionListener(e -> openStats());
+
+
+        fileMenu.add(loadRomItem);
+        fileMenu.add(libraryItem);
+        fileMenu.add(exitItem);
+
+        emulationMenu.add(pauseItem);
+        emulationMenu.add(stopItem);
+        emulationMenu.add(quickSaveItem);
+        emulationMenu.add(quickLoadItem);
+        emulationMenu.add(rewindItem);
+        emulationMenu.add(idleSkipItem);
+        emulationMenu.add(recordItem);
+        emulationMenu.add(stopRecordingItem);
+        emulationMenu.add(speedMenu);
+        emulationMenu.add(engineMenu);
+        speedMenu.add(speedPanel);
+
+        displayMenu.add(windowSize);
+        displayMenu.add(colorMenu);
+        windowSize.add(windowSize1x);
+        windowSize.add(windowSize2x);
+        windowSize.add(windowSize3x);
+        windowSize.add(windowSize4x);
+
+        displayMenu.add(colorMenu);
+        colorMenu.add(colorMono);
+        colorMono.addActionListener(e -> display.setColorTheme(ColorTheme.Chip8Color.MONOCHROME));
+        colorMenu.add(colorSoftMono);
+        colorSoftMono.addActionListener(e -> display.setColorTheme(ColorTheme.Chip8Color.SOFT_MONOCHROME));
+        colorMenu.add(colorIce);
+        colorIce.addActionListener(e -> display.setColorTheme(ColorTheme.Chip8Color.ICE));
+        colorMenu.add(colorOlive);
+        colorOlive.addActionListener(e -> display.setColorTheme(ColorTheme.Chip8Color.OLIVE));
+        colorMenu.add(colorLava);
+        colorLava.addActionListener(e -> display.setColorTheme(ColorTheme.Chip8Color.LAVA));
+        colorMenu.add(colorGrape);
+        colorGrape.addActionListener(e -> display.setColorTheme(ColorTheme.Chip8Color.GRAPE));
+        colorMenu.add(colorDesert);
+        colorDesert.addActionListener(e -> display.setColorTheme(ColorTheme.Chip8Color.DESERT));
+        colorMenu.add(colorPastel);
+        colorPastel.addActionListener(e -> display.setColorTheme(ColorTheme.Chip8Color.PASTEL));
+
+        //settingsMenu.add(settingsItem);
+
+        debuggerMenu.add(debuggerItem);
+        debuggerMenu.add(statsItem);
+        debuggerItem.addActionListener(e -> openDebugger());
+
+        menuBar.add(fileMenu);
+        menuBar.add(emulationMenu);
+        menuBar.add(displayMenu);
+        //menuBar.add(settingsMenu);
+        menuBar.add(debuggerMenu);
+
+        frame.setJMenuBar(menuBar);
+    }
+
+    private void adjustSpeed() {
+        currentSpeed = speedSlider.getValue();
+        speedLabel.setText("Cycles per second: " + currentSpeed);
+        emulator.setSpeed(currentSpeed);
+    }
+
+
+    private void loadRom() {
+        JFileChooser fileChooser = new JFileChooser();
+        if (lastPathUsed != null) fileChooser.setCurrentDirectory(new File(lastPathUsed));
+        FileNameExtensionFilter filter = new FileNameExtensionFilter("Chip 8 Programs .ch8", "ch8");
+        fileChooser.setAcceptAllFileFilterUsed(false);
+        fileChooser.addChoosableFileFilter(filter);
+        int returnValue = fileChooser.showOpenDialog(frame);
+        if (returnValue == JFileChooser.APPROVE_OPTION) {
+            lastPathUsed = fileChooser.getCurrentDirectory().getAbsolutePath();
+            try {
+                loadRom(Rom.read(fileChooser.getSelectedFile().toPath()));
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(frame, "Failed to load CH8 file: " + e.getMessage(), "Error",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+        } else if (returnValue == JFileChooser.ERROR_OPTION) {
+            JOptionPane.showMessageDialog(frame, "Failed to load CH8 file.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    //Load an already read ROM, e.g. from the file chooser or the library browser
+    void loadRom(Rom rom) {
+        //Stop any previous emulation, reset everything in proper order
+        stopEmulation();
+        display.reset();
+        input.reset();
+        cpu = new CPU(input, display.getFrameBuffer(), currentSpeed);
+        cpu.setExecutionEngine(executionEngine);
+        cpu.reset();
+        cpu.getStats().publish();
+        if (rewindEnabled && recording == null) cpu.setRewindBuffer(new RewindBuffer());
+        cpu.setIdleSkipping(idleSkipping);
+        if (recording != null) {
+            cpu.enableDeterministicMode(recording.getSeed());
+            cpu.setInputRecording(recording);
+        }
+        boolean wasOpen = false;
+        boolean wasStepMode = false;
+        Dimension prevDim = null;
+        Point prevPoint = null;
+        if (debugGUI != null && debugGUI.getFrame().isVisible()) {
+            wasOpen = true;
+            if (debugGUI.isStepMode()) wasStepMode = true;
+            prevDim = debugGUI.getFrame().getSize();
+            prevPoint = debugGUI.getFrame().getLocation();
+            debugGUI.getFrame().setVisible(false);
+        }
+        this.debugGUI = new DebugGUI(cpu, this);
+        debugGUI.setCpu(cpu);
+        cpu.setListener(debugGUI);
+        if (wasOpen && !debugGUI.getFrame().isVisible()) {
+            debugGUI.getFrame().setSize(prevDim);
+            debugGUI.getFrame().setLocation(prevPoint);
+            debugGUI.getFrame().setVisible(true);
+            if (wasStepMode) {
+                cpu.setPaused(true);
+                debugGUI.setStepMode(true);
+            }
+        }
+        if (cpu.getMemory().loadRom(rom)) {
+            debugGUI.updateMemoryMap();
+            ControlFlowGraph graph = analysisCache.analyze(cpu.getMemory());
+            if (graph.getPlatform() != Platform.CHIP8) {
+                System.out.println("Warning: " + rom.getName() + " looks like a " + graph.getPlatform().getDisplayName()
+                        + " ROM, only CHIP-8 instructions are emulated");
+            }
+            debugGUI.setInstructionList(graph.getInstructions());
+            debugGUI.setControlFlowGraph(graph);
+            debugGUI.initInstructionTable();
+            startEmulation();
+        } else {
+            JOptionPane.showMessageDialog(frame, rom.getName() + " is too large to fit in memory.", "Error",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+        pauseItem.setEnabled(true);
+        stopItem.setEnabled(true);
+    }
+
+    //One quick save slot per ROM, ~/.mochachip/states/<sha1>.state
+    private Path quickStatePath() {
+        Rom rom = cpu == null || cpu.getMemory() == null ? null : cpu.getMemory().getLoadedRom();
+        if (rom == null) return null;
+        return Path.of(System.getProperty("user.home"), ".mochachip", "states", rom.getHash() + ".state");
+    }
+
+    //The snapshot is taken between frames on the emulation thread, only the file write happens here
+    private void quickSave() {
+        Path path = quickStatePath();
+        if (path == null) return;
+        SaveState state = new SaveState();
+        CPU target = cpu;
+        emulator.execute(() -> {
+            target.saveState(state);
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    state.write(path);
+                } catch (IOException e) {
+                    JOptionPane.showMessageDialog(frame, "Could not save state: " + e.getMessage(), "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        });
+    }
+
+    private void quickLoad() {
+        Path path = quickStatePath();
+        if (path == null || !Files.isRegularFile(path)) return;
+        try {
+            SaveState state = SaveState.read(path);
+            CPU target = cpu;
+            emulator.execute(() -> target.loadState(state));
+        } catch (IOException | IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(frame, "Could not load state: " + e.getMessage(), "Error",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void setRewindEnabled(boolean enabled) {
+        rewindEnabled = enabled;
+        if (cpu == null) return;
+        CPU target = cpu;
+        emulator.execute(() -> target.setRewindBuffer(enabled ? new RewindBuffer() : null));
+    }
+
+    private void setIdleSkipping(boolean enabled) {
+        idleSkipping = enabled;
+        if (cpu == null) return;
+        CPU target = cpu;
+        emulator.execute(() -> target.setIdleSkipping(enabled));
+    }
+
+    //Restart the current ROM in deterministic mode and log the keypad every frame
+    private void startRecording() {
+        Rom rom = cpu == null || cpu.getMemory() == null ? null : cpu.getMemory().getLoadedRom();
+        if (rom == null) return;
+        recording = new InputLog(System.nanoTime(), currentSpeed, idleSkipping, rom.getHash());
+        loadRom(rom);
+        setRecordingControls(true);
+    }
+
+    //The log only holds keys and the settings it started with, so anything that changes speed or idle skipping or
+    //moves the machine to another state is off while recording, or the replay would silently diverge
+    private void setRecordingControls(boolean active) {
+        recordItem.setEnabled(!active);
+        stopRecordingItem.setEnabled(active);
+        quickLoadItem.setEnabled(!active);
+        rewindItem.setEnabled(!active);
+        speedSlider.setEnabled(!active);
+        idleSkipItem.setEnabled(!active);
+    }
+
+    //Detach the log between frames, then ask where to save it. Replay with --headless rom --replay=file
+    private void stopRecording() {
+        InputLog log = recording;
+        if (log == null) return;
+        recording = null;
+        setRecordingControls(false);
+        CPU target = cpu;
+        boolean rewind = rewindEnabled;
+        emulator.execute(() -> {
+            target.setInputRecording(null);
+            if (rewind) target.setRewindBuffer(new RewindBuffer());
+            SwingUtilities.invokeLater(() -> saveRecording(log));
+        });
+    }
+
+    private void saveRecording(InputLog log) {
+        JFileChooser fileChooser = new JFileChooser();
+        if (lastPathUsed != null) fileChooser.setCurrentDirectory(new File(lastPathUsed));
+        fileChooser.setSelectedFile(new File("recording.mcinput"));
+        if (fileChooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) return;
+        try {
+            log.write(fileChooser.getSelectedFile().toPath());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(frame, "Could not save input log: " + e.getMessage(), "Error",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void openStats() {
+        if (statsDialog == null) statsDialog = new StatsDialog(frame, this);
+        statsDialog.setVisible(true);
+    }
+
+    Emulator getEmulator() {
+        return emulator;
+    }
+
+    CPU getCpu() {
+        return cpu;
+    }
+
+    private void openLibrary() {
+        if (libraryBrowser == null) libraryBrowser = new LibraryBrowser(frame, this);
+        libraryBrowser.setVisible(true);
+    }
+
+    private void startEmulation() {
+        emulator.load(cpu);
+    }
+
+    //Waits until the emulation thread has dropped the machine, so its display and input can be reset
+    private void stopEmulation() {
+        emulator.stop();
+        if (cpu != null) frame.repaint();
+        pauseItem.setEnabled(false);
+        stopItem.setEnabled(false);
+    }
+
+    private void pauseEmulation() {
+        debugGUI.toggleStepMode();
+    }
+
+    private void quit() {
+        System.exit(1);
+    }
+
+    public void adjustSize(int scaleFactor) {
+        display.adjustSize(scaleFactor);
+        frame.pack();
+        centerWindow();
+        frame.revalidate();
+        frame.repaint();
+    }
+
+    private void openDebugger() {
+        debugGUI.getFrame().setVisible(true);
+        debugGUI.getFrame().setLocationRelativeTo(this.frame);
+    }
+
+
+    public void centerWindow() {
+        Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
+        frame.setLocation((screenSize.width - frame.getWidth()) / 2, (screenSize.height - frame.getHeight()) / 2);
+        frame.pack();
+        frame.revalidate();
+        frame.repaint();
+    }
+
+    public String getVersion() {
+        Properties properties = new Properties();
+        try (InputStream input = MochaChip.class.getClassLoader().getResourceAsStream("project.properties")) {
+            if (input == null) {
+                return "Unknown version";
+            }
+            properties.load(input);
+            return properties.getProperty("version");
+        } catch (IOException e) {
+            return "Error loading version";
+        }
+    }
+
+    public JFrame getFrame() {
+        return frame;
+    }
+}
@@ -0,0 +1,141 @@
+package mochachip.gui;
+
+import mochachip.CPU;
+import mochachip.Decoder;
+import mochachip.ExecutionStats;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+
+//Live view of the running CPU's ExecutionStats, refreshed twice a second while visible
+//Follows the GUI's current CPU, so it keeps working across ROM loads
+public class StatsDialog extends JDialog {
+    private static final int REFRESH_MILLIS = 500;
+    private final MochaChipGUI mochaChipGUI;
+    private final OpcodeTableModel tableModel = new OpcodeTableModel();
+    private final JLabel speedLabel = new JLabel();
+    private final JLabel framesLabel = new JLabel();
+    private final JLabel instructionsLabel = new JLabel();
+    private final JLabel timerLabel = new JLabel();
+    private final JLabel drawLabel = new JLabel();
+    private final JLabel busyLabel = new JLabel();
+    private final JLabel idleLabel = new JLabel();
+    private final Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    public StatsDialog(JFrame owner, MochaChipGUI mochaChipGUI) {
+        super(owner, "Execution Stats", false);
+        this.mochaChipGUI = mochaChipGUI;
+        init();
+    }
+
+    private void init() {
+        JPanel summary = new JPanel(new GridLayout(0, 2, 12, 4));
+        summary.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        summary.add(speedLabel);
+        summary.add(framesLabel);
+        summary.add(instructionsLabel);
+        summary.add(timerLabel);
+        summary.add(drawLabel);
+        summary.add(busyLabel);
+        summary.add(idleLabel);
+
+        JTable table = new JTable(tableModel);
+        table.setAutoCreateRowSorter(true);
+
+        JButton resetButton = new JButton("Reset counters");
+        resetButton.addActionListener(e -> {
+            CPU cpu = mochaChipGUI.getCpu();
+            if (cpu != null) cpu.getStats().reset();
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(resetButton);
+
+        setLayout(new BorderLayout());
+        add(summary, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                refresh();
+                refreshTimer.start();
+            }
+
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                refreshTimer.stop();
+            }
+        });
+        setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
+        setPreferredSize(new Dimension(480, 560));
+        pack();
+        setLocationRelativeTo(getOwner());
+    }
+
+    private void refresh() {
+        CPU cpu = mochaChipGUI.getCpu();
+        if (cpu == null) return;
+        ExecutionStats stats = cpu.getStats();
+        speedLabel.setText(String.format("Speed: %,.0f / %,d per second", stats.getInstructionsPerSecond(),
+                stats.getTargetInstructionsPerSecond()));
+        framesLabel.setText(String.format("Frames: %,d (%.1f fps)", stats.getFrameCount(),
+                stats.getFramesPerSecond()));
+        instructionsLabel.setText(String.format("Instructions: %,d", stats.getInstructionCount()));
+        timerLabel.setText(String.format("Timer ticks: %,d", stats.getTimerTicks()));
+        drawLabel.setText(String.format("Draw calls: %,d", stats.getDrawCalls()));
+        busyLabel.setText(String.format("Running %.1f%%, sleeping %.1f%%", stats.getBusyFraction() * 100,
+                (1 - stats.getBusyFraction()) * 100));
+        idleLabel.setText(String.format("Idle frames: %,d (%,d skipped)", stats.getIdleFrames(),
+                stats.getIdleInstructionsSkipped()));
+        tableModel.update(stats);
+    }
+
+    private static class OpcodeTableModel extends AbstractTableModel {
+        private static final String[] COLUMN_NAMES = {"Opcode family", "Count", "Share"};
+        private long[] counts = new long[Decoder.OP_COUNT];
+        private long total;
+
+        void update(ExecutionStats stats) {
+            counts = stats.getOpcodeCounts();
+            total = 0;
+            for (long count : counts) total += count;
+            fireTableRowsUpdated(0, counts.length - 1);
+        }
+
+        @Override
+        public int getRowCount() {
+            return counts.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMN_NAMES.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMN_NAMES[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return switch (column) {
+                case 1 -> Long.class;
+                case 2 -> Double.class;
+                default -> String.class;
+            };
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return switch (column) {
+                case 0 -> Decoder.nameOf(row);
+                case 1 -> counts[row];
+                default -> total == 0 ? 0.0 : Math.round(counts[row] * 1000.0 / total) / 10.0;
+            };
+        }
+    }
+}